@@ -15,37 +15,110 @@ public class FlappyDemo extends ApplicationAdapter {
 	public static final int HEIGHT = 800;
 
 	public static final String TITLE = "Flappy Bird";
+	// Turns on developer checks and reports, set by the launcher for debug builds
+	private static boolean debug;
+	// Frame rate cap while a state is animating, or 0 for no cap
+	private int targetFps;
 	private GameStateManager gsm;
+	private FramePacer pacer;
 	// Want only one sb per game
 	private SpriteBatch batch;
 
 
+	/**
+	 * Constructor for a release build of the game
+	 */
+	public FlappyDemo () {
+		this(false);
+	}
+
+	/**
+	 * Constructor for the game, capped at the default frame rate
+	 * @param debug True for debug builds, which report frame times and fail on leaked resources
+	 */
+	public FlappyDemo (boolean debug) {
+		this(debug, FramePacer.DEFAULT_TARGET_FPS);
+	}
+
+	/**
+	 * Constructor for the game
+	 * @param debug True for debug builds, which report frame times and fail on leaked resources
+	 * @param targetFps The frame rate animating states are capped at, or 0 for no cap
+	 */
+	public FlappyDemo (boolean debug, int targetFps) {
+		FlappyDemo.debug = debug;
+		this.targetFps = targetFps;
+	}
+
+	/**
+	 * Returns whether this is a debug build
+	 * @return True if developer checks and reports are turned on
+	 */
+	public static boolean isDebug () {
+		return debug;
+	}
+
+	/**
+	 * Changes the frame rate animating states are capped at, for example from a settings screen.
+	 * Game-play itself advances in fixed ticks, so it runs at the same speed at any frame rate.
+	 * @param targetFps The new target frame rate, or 0 for no cap
+	 */
+	public void setTargetFps (int targetFps) {
+		this.targetFps = targetFps;
+		if (pacer != null) {
+			pacer.setTargetFps(targetFps);
+		}
+	}
+
+	/**
+	 * Gets the frame rate animating states are capped at
+	 * @return The target frame rate, or 0 if there is no cap
+	 */
+	public int getTargetFps () {
+		return targetFps;
+	}
+
 	/**
 	 * Initializes essentials and instantiates a MenuState
 	 */
 	@Override
 	public void create () {
-		batch = new SpriteBatch();
+		// Leaked resources are bugs, so debug builds stop on them
+		ResourceTracker.setFailOnLeak(debug);
+		// The batch belongs to the application rather than any state
+		ResourceTracker.setOwner(null);
+		batch = ResourceTracker.newBatch();
 		gsm = new GameStateManager();
+		pacer = new FramePacer(targetFps, true);
+		pacer.setReporting(debug);
 		Gdx.gl.glClearColor(1, 0, 0, 1);
 		gsm.push(new MenuState(gsm));
 	}
 
 	/**
-	 * Passes the render call to the Game State Manager
+	 * Passes the render call to the Game State Manager. The frame pacer decides
+	 * whether the next frame is drawn right away or only on input, based on the
+	 * state in focus after the update.
 	 */
 	@Override
 	public void render () {
+		pacer.begin(gsm.getCurrentName());
 		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
 		gsm.update(Gdx.graphics.getDeltaTime());
 		gsm.render(batch);
+		pacer.end(gsm.isContinuous());
 	}
 
 	/**
-	 * Disposes of the ApplicationAdapter
+	 * Disposes of every remaining state and the sprite batch, then checks that
+	 * nothing is left behind
 	 */
 	@Override
 	public void dispose () {
+		gsm.dispose();
+		ResourceTracker.dispose(batch);
+		ResourceTracker.release(null);
+		ResourceTracker.report();
 		super.dispose();
 	}
 }
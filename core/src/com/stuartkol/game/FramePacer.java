@@ -0,0 +1,189 @@
+package com.stuartkol.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Controls how often the game is redrawn. States that animate on their own are
+ * rendered continuously and capped at a target frame rate, while static states
+ * switch to non-continuous rendering and are only redrawn when input arrives.
+ *
+ * When reporting is turned on, the pacer also keeps track of how much time each
+ * state spends updating and rendering, and prints it once per second so the
+ * savings are visible.
+ */
+public class FramePacer {
+    public static final int DEFAULT_TARGET_FPS = 60;
+    private static final long NANOS_PER_SECOND = 1000000000L;
+    private static final long NANOS_PER_MILLI = 1000000L;
+    // Sleep wakes up late, so stop sleeping this far ahead of the next frame
+    private static final long SLEEP_MARGIN = 2 * NANOS_PER_MILLI;
+
+    private int targetFps;
+    private boolean vSync;
+    private boolean continuous;
+    // Whether the pacer has to hold frames back itself, see shouldSleep
+    private boolean sleeping;
+    private boolean reporting;
+
+    private long frameInterval;
+    private long nextFrame;
+    private long frameStart;
+    private String frameOwner;
+
+    // Busy time and frame count per state name since the last report
+    private ObjectMap<String, long[]> usage;
+    private long lastReport;
+
+    /**
+     * Constructor for the FramePacer
+     * @param targetFps The frame rate continuous states are capped at, or 0 for no cap
+     * @param vSync Whether rendering should wait for the display's vertical sync
+     */
+    public FramePacer(int targetFps, boolean vSync) {
+        this.vSync = vSync;
+        continuous = true;
+        usage = new ObjectMap<String, long[]>();
+        Gdx.graphics.setVSync(vSync);
+        setTargetFps(targetFps);
+        lastReport = System.nanoTime();
+    }
+
+    /**
+     * Sets the frame rate continuous states are capped at
+     * @param targetFps The new target frame rate, or 0 for no cap
+     */
+    public void setTargetFps(int targetFps) {
+        this.targetFps = targetFps;
+        frameInterval = targetFps > 0 ? NANOS_PER_SECOND / targetFps : 0;
+        sleeping = shouldSleep();
+    }
+
+    /**
+     * Gets the frame rate continuous states are capped at
+     * @return The target frame rate, or 0 if there is no cap
+     */
+    public int getTargetFps() {
+        return targetFps;
+    }
+
+    /**
+     * Sets whether the time spent per state is printed once per second
+     * @param reporting True to print the report, meant for debug builds
+     */
+    public void setReporting(boolean reporting) {
+        this.reporting = reporting;
+        usage.clear();
+        lastReport = System.nanoTime();
+    }
+
+    /**
+     * Called at the start of every frame. Waits out the remainder of the frame
+     * when a cap is set and rendering is continuous.
+     * @param stateName The name of the state about to be updated and rendered
+     */
+    public void begin(String stateName) {
+        if (continuous && sleeping) {
+            sync();
+        }
+
+        frameOwner = stateName;
+        frameStart = System.nanoTime();
+    }
+
+    /**
+     * Called at the end of every frame. Switches between continuous and on-demand
+     * rendering if the state in focus now needs the other, which may be a state that
+     * was only set during this frame's update. Also records the time the frame took
+     * and prints the per-state report once a second has passed.
+     * @param stateContinuous Whether the state now in focus animates on its own
+     */
+    public void end(boolean stateContinuous) {
+        if (stateContinuous != continuous) {
+            continuous = stateContinuous;
+            Gdx.graphics.setContinuousRendering(continuous);
+            if (continuous) {
+                // Don't wait for more input before drawing the first animated frame
+                Gdx.graphics.requestRendering();
+            }
+            nextFrame = 0;
+        }
+        if (!reporting) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        long[] stats = usage.get(frameOwner);
+        if (stats == null) {
+            stats = new long[2];
+            usage.put(frameOwner, stats);
+        }
+        stats[0] += now - frameStart;
+        stats[1]++;
+
+        if (now - lastReport >= NANOS_PER_SECOND) {
+            report(now - lastReport);
+            lastReport = now;
+        }
+    }
+
+    /**
+     * Vertical sync already holds frames back to the refresh rate. Sleeping on top of
+     * it when the target is at or above that rate only risks missing the next sync.
+     * Only called when the target changes, since reading the display mode allocates.
+     * @return True if the pacer has to hold frames back itself
+     */
+    private boolean shouldSleep() {
+        if (frameInterval == 0) {
+            return false;
+        }
+        if (!vSync) {
+            return true;
+        }
+        int refreshRate = Gdx.graphics.getDisplayMode().refreshRate;
+        return refreshRate <= 0 || targetFps < refreshRate;
+    }
+
+    /**
+     * Sleeps until shortly before the next frame is due. The pacer never spins; a
+     * frame that starts a little early is preferred over burning the CPU.
+     */
+    private void sync() {
+        long now = System.nanoTime();
+        long remaining = nextFrame - now;
+        if (remaining > SLEEP_MARGIN) {
+            try {
+                Thread.sleep((remaining - SLEEP_MARGIN) / NANOS_PER_MILLI);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            now = System.nanoTime();
+        }
+
+        // Don't try to catch up on frames that were missed, just schedule the next one
+        nextFrame = Math.max(nextFrame + frameInterval, now);
+    }
+
+    /**
+     * Prints the busy time per second of every state that was drawn since the
+     * last report and resets the counters
+     * @param elapsed Nanoseconds since the last report
+     */
+    private void report(long elapsed) {
+        StringBuilder sb = new StringBuilder("Frame time:");
+        for (ObjectMap.Entry<String, long[]> entry : usage.entries()) {
+            long[] stats = entry.value;
+            if (stats[1] == 0) {
+                continue;
+            }
+            float msPerSecond = (stats[0] * (float) NANOS_PER_SECOND / elapsed) / NANOS_PER_MILLI;
+            float framesPerSecond = stats[1] * (float) NANOS_PER_SECOND / elapsed;
+            sb.append(' ').append(entry.key)
+                    .append(' ').append(String.format("%.2f", msPerSecond)).append("ms/s")
+                    .append(" (").append(String.format("%.1f", framesPerSecond)).append(" fps)");
+            stats[0] = 0;
+            stats[1] = 0;
+        }
+        System.out.println(sb);
+    }
+}
@@ -0,0 +1,276 @@
+package com.stuartkol.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IdentityMap;
+
+/**
+ * Keeps track of every native resource the game creates and which state owns it.
+ * Resources are created through this class so their size can be estimated, and
+ * disposed through it so they stop being counted.
+ *
+ * When a state is disposed, anything it still owns has outlived it and is reported
+ * as a leak. Debug builds and tests set the tracker to fail on leaks, so a leak
+ * throws and can't go unnoticed. Release builds log the leak and then dispose of
+ * the leftovers themselves, which keeps memory flat for players but also hides the
+ * bug, so leaks have to be caught in debug builds.
+ */
+public class ResourceTracker {
+    /**
+     * The kinds of resources that are tracked
+     */
+    public enum Category { TEXTURE, SOUND, MUSIC, FONT, BATCH }
+
+    // Vertex and index buffers of a SpriteBatch with the default size of 1000 sprites
+    private static final long BATCH_BYTES = 1000 * 4 * 20 + 1000 * 6 * 2;
+    // Music is streamed, so only its decoding buffers stay in memory
+    private static final long MUSIC_BYTES = 3 * 4096 * 10;
+
+    private static IdentityMap<Disposable, Entry> live = new IdentityMap<Disposable, Entry>();
+    private static Object owner;
+    private static boolean failOnLeak;
+
+    /**
+     * A tracked resource's owner, category, and estimated native size
+     */
+    private static class Entry {
+        final Object owner;
+        final Category category;
+        final long bytes;
+        final String name;
+
+        Entry(Object owner, Category category, long bytes, String name) {
+            this.owner = owner;
+            this.category = category;
+            this.bytes = bytes;
+            this.name = name;
+        }
+    }
+
+    private ResourceTracker() {
+    }
+
+    /**
+     * Sets the owner of resources created from now on
+     * @param state The owning state, or null for resources owned by the application
+     */
+    public static void setOwner(Object state) {
+        owner = state;
+    }
+
+    /**
+     * Sets whether leaks throw an exception instead of being logged and disposed.
+     * FlappyDemo turns this on for debug builds.
+     * @param fail True to throw on leaks
+     */
+    public static void setFailOnLeak(boolean fail) {
+        failOnLeak = fail;
+    }
+
+    /**
+     * Loads and tracks a texture
+     * @param path The internal path of the image
+     * @return The loaded texture
+     */
+    public static Texture newTexture(String path) {
+        Texture texture = new Texture(path);
+        return track(texture, Category.TEXTURE, sizeOf(texture), path);
+    }
+
+    /**
+     * Loads and tracks a sound effect. Sounds are decoded fully into memory, which
+     * is usually many times the size of the file, but libGDX doesn't tell how large
+     * the decoded sound is. The file size is tracked instead and reported as such.
+     * @param path The internal path of the sound file
+     * @return The loaded sound
+     */
+    public static Sound newSound(String path) {
+        FileHandle file = Gdx.files.internal(path);
+        return track(Gdx.audio.newSound(file), Category.SOUND, file.length(), path);
+    }
+
+    /**
+     * Loads and tracks a piece of music
+     * @param path The internal path of the music file
+     * @return The loaded music
+     */
+    public static Music newMusic(String path) {
+        return track(Gdx.audio.newMusic(Gdx.files.internal(path)), Category.MUSIC, MUSIC_BYTES, path);
+    }
+
+    /**
+     * Creates and tracks the default font
+     * @return The new font
+     */
+    public static BitmapFont newFont() {
+        BitmapFont font = new BitmapFont();
+        long bytes = 0;
+        if (font.ownsTexture()) {
+            Array<TextureRegion> regions = font.getRegions();
+            for (int i = 0; i < regions.size; i++) {
+                bytes += sizeOf(regions.get(i).getTexture());
+            }
+        }
+        return track(font, Category.FONT, bytes, "default font");
+    }
+
+    /**
+     * Creates and tracks a sprite batch of the default size
+     * @return The new sprite batch
+     */
+    public static SpriteBatch newBatch() {
+        return track(new SpriteBatch(), Category.BATCH, BATCH_BYTES, "sprite batch");
+    }
+
+    /**
+     * Tracks a resource that was created elsewhere
+     * @param resource The resource to track
+     * @param category The kind of resource
+     * @param bytes The estimated native memory used by the resource
+     * @param name A name used when reporting the resource
+     * @return The resource that was passed in
+     */
+    public static <T extends Disposable> T track(T resource, Category category, long bytes, String name) {
+        live.put(resource, new Entry(owner, category, bytes, name));
+        return resource;
+    }
+
+    /**
+     * Disposes of a resource and stops tracking it
+     * @param resource The resource to dispose of
+     */
+    public static void dispose(Disposable resource) {
+        if (resource == null) {
+            return;
+        }
+        live.remove(resource);
+        resource.dispose();
+    }
+
+    /**
+     * Checks that a disposed state no longer owns any resources. When failing on leaks
+     * an exception is thrown and the leftovers stay live. Otherwise they are logged
+     * and quietly disposed here, so the owner's missing dispose call never shows up
+     * anywhere but the log.
+     * @param state The state that was disposed, or null for the application itself
+     * @return The number of leaked resources
+     * @throws GdxRuntimeException If anything leaked while failing on leaks
+     */
+    public static int release(Object state) {
+        Array<Disposable> leaked = null;
+        for (IdentityMap.Entry<Disposable, Entry> entry : live.entries()) {
+            if (entry.value.owner == state) {
+                if (leaked == null) {
+                    leaked = new Array<Disposable>();
+                }
+                leaked.add(entry.key);
+            }
+        }
+        if (leaked == null) {
+            return 0;
+        }
+
+        String ownerName = state == null ? "FlappyDemo" : state.getClass().getSimpleName();
+        StringBuilder message = new StringBuilder();
+        message.append(leaked.size).append(" resource(s) outlived ").append(ownerName).append(':');
+        for (int i = 0; i < leaked.size; i++) {
+            Entry entry = live.get(leaked.get(i));
+            message.append(' ').append(entry.category).append(' ').append(entry.name);
+        }
+        if (failOnLeak) {
+            throw new GdxRuntimeException(message.toString());
+        }
+        System.err.println(message);
+
+        for (int i = 0; i < leaked.size; i++) {
+            dispose(leaked.get(i));
+        }
+        return leaked.size;
+    }
+
+    /**
+     * Gets the number of live resources of a category
+     * @param category The kind of resource
+     * @return The number of live resources
+     */
+    public static int getLiveCount(Category category) {
+        int count = 0;
+        for (Entry entry : live.values()) {
+            if (entry.category == category) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the estimated native memory used by live resources of a category. For
+     * sounds this is the size of their files, which understates their decoded size.
+     * @param category The kind of resource
+     * @return The estimated number of bytes
+     */
+    public static long getLiveBytes(Category category) {
+        long bytes = 0;
+        for (Entry entry : live.values()) {
+            if (entry.category == category) {
+                bytes += entry.bytes;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Prints the number and estimated size of live resources by category. Sounds
+     * are listed with the size of their files, not their memory.
+     */
+    public static void report() {
+        StringBuilder sb = new StringBuilder("Live resources:");
+        for (Category category : Category.values()) {
+            sb.append(' ').append(category.name().toLowerCase())
+                    .append(' ').append(getLiveCount(category))
+                    .append(" (").append(getLiveBytes(category) / 1024)
+                    .append(category == Category.SOUND ? "KB of files)" : "KB)");
+        }
+        System.out.println(sb);
+    }
+
+    /**
+     * Estimates the native memory of a texture from its size and pixel format
+     * @param texture The texture
+     * @return The estimated number of bytes
+     */
+    private static long sizeOf(Texture texture) {
+        long bytes = (long) texture.getWidth() * texture.getHeight()
+                * bytesPerPixel(texture.getTextureData().getFormat());
+        if (texture.getTextureData().useMipMaps()) {
+            bytes += bytes / 3;
+        }
+        return bytes;
+    }
+
+    private static int bytesPerPixel(Pixmap.Format format) {
+        switch (format) {
+            case Alpha:
+            case Intensity:
+                return 1;
+            case LuminanceAlpha:
+            case RGB565:
+            case RGBA4444:
+                return 2;
+            case RGB888:
+                return 3;
+            default:
+                return 4;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.stuartkol.game.course;
+
+/**
+ * The gaps of a course, in the order the tubes take them. Every gap has already
+ * been checked by a CourseSolver.
+ */
+public interface Course {
+    /**
+     * Returns whether a gap can be read yet
+     * @param index The index of the gap, starting from 0
+     * @return True if getGap can be called with this index
+     */
+    boolean isReady(int index);
+
+    /**
+     * Gets a gap of the course. Only call this after isReady returned true for the same index.
+     * @param index The index of the gap, starting from 0
+     * @return The y coordinate of the gap's top tube
+     */
+    int getGap(int index);
+}
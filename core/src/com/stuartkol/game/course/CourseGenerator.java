@@ -0,0 +1,124 @@
+package com.stuartkol.game.course;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.stuartkol.game.FlappyDemo;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generates the course on a background thread, a few gaps ahead of the camera.
+ * Every gap is checked by a CourseSolver before it is handed to the game, and the
+ * whole course is decided by the seed alone.
+ *
+ * The game never waits on the generator: it asks whether a gap is ready and reads
+ * it from a ring buffer that the generator publishes to. Gaps stay readable for a
+ * while after they are used, so rewinding can place them again.
+ */
+public class CourseGenerator implements Course, Runnable {
+    private static final int CAPACITY = 32;
+    // How many gaps the generator works ahead of the game
+    private static final int LOOKAHEAD = 8;
+
+    private final int[] gaps = new int[CAPACITY];
+    private final CourseSolver solver;
+    private final RandomXS128 rand;
+    private final long seed;
+
+    private volatile int generated;
+    private volatile int requested;
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * Constructor for the CourseGenerator
+     * @param seed The seed the course is generated from
+     * @param solver The solver used to check each gap
+     */
+    public CourseGenerator(long seed, CourseSolver solver) {
+        this.seed = seed;
+        this.solver = solver;
+        rand = new RandomXS128(seed);
+    }
+
+    /**
+     * Starts generating the course on a background thread
+     */
+    public void start() {
+        running = true;
+        thread = new Thread(this, "course-generator");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the background thread. Gaps already generated stay readable.
+     */
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Returns whether a gap has been generated and can still be read
+     * @param index The index of the gap, starting from 0
+     * @return True if getGap can be called with this index
+     */
+    @Override
+    public boolean isReady(int index) {
+        int count = generated;
+        // The oldest slots may be overwritten while the generator catches up
+        return index < count && index >= count - CAPACITY + LOOKAHEAD;
+    }
+
+    /**
+     * Gets a generated gap and lets the generator move further ahead. Only call
+     * this after isReady returned true for the same index.
+     * @param index The index of the gap, starting from 0
+     * @return The y coordinate of the gap's top tube
+     */
+    @Override
+    public int getGap(int index) {
+        if (index + 1 > requested) {
+            requested = index + 1;
+            LockSupport.unpark(thread);
+        }
+        return gaps[index % CAPACITY];
+    }
+
+    /**
+     * Gets the seed the course is generated from
+     * @return The seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Keeps the ring buffer filled up to LOOKAHEAD gaps past the last one requested.
+     * Debug builds also print how long the first gaps took and how the solver did.
+     */
+    @Override
+    public void run() {
+        boolean debug = FlappyDemo.isDebug();
+        long start = System.nanoTime();
+        while (running) {
+            if (generated - requested >= LOOKAHEAD) {
+                LockSupport.park(this);
+                continue;
+            }
+            gaps[generated % CAPACITY] = solver.nextGap(rand);
+            // Publishing the count after the write makes the gap visible to the game
+            generated++;
+            if (debug && generated == LOOKAHEAD) {
+                System.out.println("Course: first " + LOOKAHEAD + " gaps solved in "
+                        + (System.nanoTime() - start) / 1000000 + "ms");
+            }
+        }
+        if (debug) {
+            System.out.println("Course: " + generated + " gaps, " + solver.getRejectedCount()
+                    + " rejected, " + solver.getFallbackCount() + " fallbacks");
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.stuartkol.game.course;
+
+import com.stuartkol.game.sprites.Bird;
+import com.stuartkol.game.sprites.Tube;
+import com.stuartkol.game.states.PlayState;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Picks tube gap heights one at a time and only accepts a gap the bird can actually
+ * fly through after making it through every gap before it.
+ *
+ * The solver follows every state the bird could be in, tick by tick, using the same
+ * rules as Bird and PlayState. A state is the bird's height and its vertical velocity,
+ * which only ever takes the values reached by counting gravity steps since the last
+ * jump (or since the start). Every tick each state either jumps or doesn't, and states
+ * that hit the ground or a tube are dropped. A gap is reachable if any state survives
+ * until the bird is past it.
+ *
+ * Heights are kept exactly, in 24ths of a pixel, since every velocity the bird can
+ * have moves it a whole number of those per tick. States are grouped into quarter-pixel
+ * bins, and each bin keeps the exact height of the first state that reached it, so
+ * every state followed is one the bird can really be in.
+ *
+ * The solver is not thread safe. It is meant to be driven by a single
+ * CourseGenerator thread, or used directly where blocking is fine.
+ */
+public class CourseSolver {
+    // Random gaps tried before falling back to the closest reachable height
+    private static final int MAX_ATTEMPTS = 32;
+    // Pixels the bird has to stay clear of each tube edge, to absorb the float rounding in Bird.update
+    private static final int GAP_MARGIN = 2;
+    // After this many ticks without a jump the bird has long since hit the ground
+    private static final int MAX_FALL_TICKS = 120;
+
+    // Heights are counted in 24ths of a pixel, and binned to quarter pixels
+    static final int UNITS = 24;
+    private static final int UNITS_PER_BIN = UNITS / 4;
+    private static final int CEILING = Bird.CEILING * UNITS;
+    private static final int BINS = CEILING / UNITS_PER_BIN + 1;
+    private static final int WORDS = (BINS + 63) / 64;
+    // Velocities [0, MAX_FALL_TICKS) follow a jump, the rest follow the start
+    private static final int VELOCITIES = 2 * MAX_FALL_TICKS;
+    // The velocity of the tick the bird jumps on, and of the bird at the start
+    static final int JUMP = 0;
+    static final int START = MAX_FALL_TICKS;
+    // How far each velocity moves the bird in one tick
+    private static final int[] STEPS = new int[VELOCITIES];
+
+    static {
+        for (int v = 0; v < VELOCITIES; v++) {
+            STEPS[v] = Math.round(velocity(v) * PlayState.TICK * UNITS);
+        }
+    }
+
+    private final float birdWidth;
+    private final float birdHeight;
+    private final float groundTop;
+
+    private States current;
+    private States entry;
+    private States work;
+    private States spare;
+    private int currentTick;
+    private int entryTick;
+    private int nextIndex;
+    private int lastGap;
+
+    private int rejected;
+    private int fallbacks;
+
+    /**
+     * Constructor for the CourseSolver
+     * @param birdWidth The width of the bird's hit-box
+     * @param birdHeight The height of the bird's hit-box
+     * @param groundTop The y coordinate at or below which the bird has hit the ground
+     */
+    public CourseSolver(float birdWidth, float birdHeight, float groundTop) {
+        this.birdWidth = birdWidth;
+        this.birdHeight = birdHeight;
+        this.groundTop = groundTop;
+        current = new States();
+        entry = new States();
+        work = new States();
+        spare = new States();
+
+        // The bird starts at rest, before it has ever jumped
+        current.add(START, toUnits(PlayState.BIRD_START_Y));
+        lastGap = Tube.LOWEST_OPENING + Tube.TUBE_GAP + Tube.FLUCTUATION / 2;
+    }
+
+    /**
+     * Picks the height of the next gap. Random heights are tried until one is reachable;
+     * if none is, the reachable height closest to the previous gap is used instead.
+     * @param rand The course's random number generator
+     * @return The y coordinate of the top tube of the next gap
+     */
+    public int nextGap(Random rand) {
+        approach();
+        for (int i = 0; i < MAX_ATTEMPTS; i++) {
+            int gap = rand.nextInt(Tube.FLUCTUATION) + Tube.TUBE_GAP + Tube.LOWEST_OPENING;
+            if (accept(gap)) {
+                return gap;
+            }
+            rejected++;
+        }
+
+        fallbacks++;
+        for (int offset = 0; offset < Tube.FLUCTUATION; offset++) {
+            if (inRange(lastGap - offset) && accept(lastGap - offset)) {
+                return lastGap - offset;
+            }
+            if (offset > 0 && inRange(lastGap + offset) && accept(lastGap + offset)) {
+                return lastGap + offset;
+            }
+        }
+        // Nothing is reachable, which means the course was already impossible
+        States tmp = current;
+        current = entry;
+        entry = tmp;
+        currentTick = entryTick;
+        nextIndex++;
+        return lastGap;
+    }
+
+    /**
+     * Gets the number of random gaps that were rejected as unreachable
+     * @return The number of rejected gaps
+     */
+    public int getRejectedCount() {
+        return rejected;
+    }
+
+    /**
+     * Gets the number of times no random gap was reachable and the closest height was used
+     * @return The number of fallbacks
+     */
+    public int getFallbackCount() {
+        return fallbacks;
+    }
+
+    /**
+     * Gets the x coordinate of a gap in the course
+     * @param index The index of the gap, starting from 0
+     * @return The x coordinate of the gap's tubes
+     */
+    public static float tubeX(int index) {
+        return (index + 2) * (PlayState.TUBE_SPACING + Tube.TUBE_WIDTH);
+    }
+
+    private static float birdX(int tick) {
+        return PlayState.BIRD_START_X + tick * Bird.MOVEMENT * PlayState.TICK;
+    }
+
+    private boolean inRange(int gap) {
+        int lowest = Tube.TUBE_GAP + Tube.LOWEST_OPENING;
+        return gap >= lowest && gap < lowest + Tube.FLUCTUATION;
+    }
+
+    /**
+     * Follows every state from the current tick up to the last tick before the bird
+     * reaches the next gap's tubes. The gap's height doesn't matter until then, so
+     * this is shared by every height tried for the gap.
+     */
+    private void approach() {
+        float tubeLeft = tubeX(nextIndex);
+        current.copyTo(entry);
+        int tick = currentTick;
+        while (birdX(tick + 1) + birdWidth <= tubeLeft) {
+            tick++;
+            step(entry, spare, false, 0, 0);
+            States tmp = entry;
+            entry = spare;
+            spare = tmp;
+        }
+        entryTick = tick;
+    }
+
+    /**
+     * Follows every state from the tick before the tubes until the bird is past the next
+     * gap. The gap is accepted and the surviving states kept if any state makes it through.
+     * @param gap The y coordinate of the top tube
+     * @return True if the gap is reachable
+     */
+    private boolean accept(int gap) {
+        float tubeLeft = tubeX(nextIndex);
+        float tubeRight = tubeLeft + Tube.TUBE_WIDTH;
+        float lowest = (gap - Tube.TUBE_GAP + GAP_MARGIN) * UNITS;
+        float highest = (gap - GAP_MARGIN - birdHeight) * UNITS;
+
+        entry.copyTo(work);
+        int tick = entryTick;
+        float x;
+        do {
+            tick++;
+            x = birdX(tick);
+            boolean inTube = x < tubeRight && x + birdWidth > tubeLeft;
+            if (!step(work, spare, inTube, lowest, highest)) {
+                return false;
+            }
+            States tmp = work;
+            work = spare;
+            spare = tmp;
+        } while (x < tubeRight);
+
+        States tmp = current;
+        current = work;
+        work = tmp;
+        currentTick = tick;
+        nextIndex++;
+        lastGap = gap;
+        return true;
+    }
+
+    /**
+     * Advances every state by one tick, both with and without a jump
+     * @return True if any state survived
+     */
+    private boolean step(States from, States to, boolean inTube, float lowest, float highest) {
+        to.clear();
+        boolean alive = false;
+        for (int v = 0; v < VELOCITIES; v++) {
+            long[] row = from.bits[v];
+            int[] heights = from.heights[v];
+            int fall = fall(v);
+            for (int w = 0; w < WORDS; w++) {
+                long bits = row[w];
+                while (bits != 0) {
+                    int y = heights[w * 64 + Long.numberOfTrailingZeros(bits)];
+                    bits &= bits - 1;
+                    if (fall >= 0) {
+                        alive |= move(to, fall, y, inTube, lowest, highest);
+                    }
+                    if (y < CEILING) {
+                        alive |= move(to, JUMP, y, inTube, lowest, highest);
+                    }
+                }
+            }
+        }
+        return alive;
+    }
+
+    /**
+     * Moves one state with the given velocity and keeps it if the bird survives
+     * @return True if the bird survived
+     */
+    private boolean move(States to, int v, int y, boolean inTube, float lowest, float highest) {
+        y = advance(y, v);
+        if (y <= groundTop * UNITS || (inTube && (y < lowest || y > highest))) {
+            return false;
+        }
+        to.add(v, y);
+        return true;
+    }
+
+    /**
+     * The velocity of a state, after gravity was already applied this tick
+     */
+    private static float velocity(int v) {
+        if (v < MAX_FALL_TICKS) {
+            return Bird.JUMP_VELOCITY + Bird.GRAVITY * (v + 1);
+        }
+        return Bird.GRAVITY * (v - MAX_FALL_TICKS);
+    }
+
+    /**
+     * Gets the velocity a state has on the next tick if it doesn't jump
+     * @param v The velocity of the state
+     * @return The next velocity, or -1 if the bird has certainly hit the ground by then
+     */
+    static int fall(int v) {
+        return v + 1 == MAX_FALL_TICKS || v + 1 == VELOCITIES ? -1 : v + 1;
+    }
+
+    /**
+     * Moves a height by one tick at the given velocity, stopping at the ceiling
+     * @param y The height in 24ths of a pixel
+     * @param v The velocity of the tick
+     * @return The new height in 24ths of a pixel
+     */
+    static int advance(int y, int v) {
+        return Math.min(y + STEPS[v], CEILING);
+    }
+
+    /**
+     * Converts a height in pixels to the solver's 24ths of a pixel
+     * @param y The height in pixels, a multiple of a 24th
+     * @return The height in 24ths of a pixel
+     */
+    static int toUnits(float y) {
+        return Math.round(y * UNITS);
+    }
+
+    /**
+     * The states the bird can be in on one tick, by velocity and quarter-pixel bin.
+     * A bin's height is only meaningful while its bit is set.
+     */
+    private static class States {
+        final long[][] bits = new long[VELOCITIES][WORDS];
+        final int[][] heights = new int[VELOCITIES][BINS];
+
+        /**
+         * Adds a state, unless its bin already holds one
+         */
+        void add(int v, int y) {
+            int bin = y / UNITS_PER_BIN;
+            long bit = 1L << (bin & 63);
+            if ((bits[v][bin >> 6] & bit) == 0) {
+                bits[v][bin >> 6] |= bit;
+                heights[v][bin] = y;
+            }
+        }
+
+        void clear() {
+            for (int v = 0; v < VELOCITIES; v++) {
+                Arrays.fill(bits[v], 0);
+            }
+        }
+
+        void copyTo(States to) {
+            for (int v = 0; v < VELOCITIES; v++) {
+                System.arraycopy(bits[v], 0, to.bits[v], 0, WORDS);
+                System.arraycopy(heights[v], 0, to.heights[v], 0, BINS);
+            }
+        }
+    }
+}
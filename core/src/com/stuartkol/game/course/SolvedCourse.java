@@ -0,0 +1,54 @@
+package com.stuartkol.game.course;
+
+import com.badlogic.gdx.math.RandomXS128;
+
+/**
+ * A course that solves its gaps on the calling thread, the first time each one is
+ * asked for. Every gap is always ready, so it suits places where blocking is fine,
+ * like replaying a run. Given the same seed and solver settings it produces the
+ * same gaps as a CourseGenerator.
+ */
+public class SolvedCourse implements Course {
+    private final CourseSolver solver;
+    private final RandomXS128 rand;
+    private int[] gaps = new int[16];
+    private int count;
+
+    /**
+     * Constructor for the SolvedCourse
+     * @param seed The seed the course is generated from
+     * @param solver The solver used to check each gap
+     */
+    public SolvedCourse(long seed, CourseSolver solver) {
+        this.solver = solver;
+        rand = new RandomXS128(seed);
+    }
+
+    /**
+     * Every gap can be solved on demand
+     * @param index The index of the gap, starting from 0
+     * @return true
+     */
+    @Override
+    public boolean isReady(int index) {
+        return true;
+    }
+
+    /**
+     * Gets a gap of the course, solving it and every gap before it if needed
+     * @param index The index of the gap, starting from 0
+     * @return The y coordinate of the gap's top tube
+     */
+    @Override
+    public int getGap(int index) {
+        while (count <= index) {
+            if (count == gaps.length) {
+                int[] grown = new int[gaps.length * 2];
+                System.arraycopy(gaps, 0, grown, 0, count);
+                gaps = grown;
+            }
+            gaps[count++] = solver.nextGap(rand);
+        }
+        return gaps[index];
+    }
+}
@@ -0,0 +1,207 @@
+package com.stuartkol.game.effects;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.MathUtils;
+import com.stuartkol.game.ResourceTracker;
+
+/**
+ * A fixed pool of short-lived particles used for visual feedback. Every particle
+ * field lives in its own preallocated array, so emitting, updating and removing
+ * particles never allocates. All particles share one texture region and are drawn
+ * in a single pass, which costs one extra draw call at most.
+ */
+public class ParticleSystem {
+    public static final int MAX_PARTICLES = 256;
+    private static final int DOT_SIZE = 8;
+
+    /**
+     * The kinds of bursts that can be emitted, with the settings of their particles
+     */
+    public enum Effect {
+        // count, speed, spread (radians), direction (radians), life, gravity, size, r, g, b
+        FEATHERS(6, 60, 2.5f, -MathUtils.PI / 2, 0.6f, -120, 4, 1f, 0.95f, 0.8f),
+        SPARKLES(12, 90, MathUtils.PI2, 0, 0.5f, 0, 3, 1f, 0.85f, 0.2f),
+        DEBRIS(24, 140, MathUtils.PI2, 0, 0.9f, -400, 5, 0.55f, 0.35f, 0.2f);
+
+        final int count;
+        final float speed, spread, direction, life, gravity, size;
+        final float r, g, b;
+
+        Effect(int count, float speed, float spread, float direction, float life,
+               float gravity, float size, float r, float g, float b) {
+            this.count = count;
+            this.speed = speed;
+            this.spread = spread;
+            this.direction = direction;
+            this.life = life;
+            this.gravity = gravity;
+            this.size = size;
+            this.r = r;
+            this.g = g;
+            this.b = b;
+        }
+    }
+
+    private final float[] x = new float[MAX_PARTICLES];
+    private final float[] y = new float[MAX_PARTICLES];
+    private final float[] velX = new float[MAX_PARTICLES];
+    private final float[] velY = new float[MAX_PARTICLES];
+    private final float[] life = new float[MAX_PARTICLES];
+    private final float[] maxLife = new float[MAX_PARTICLES];
+    private final float[] gravity = new float[MAX_PARTICLES];
+    private final float[] size = new float[MAX_PARTICLES];
+    private final float[] red = new float[MAX_PARTICLES];
+    private final float[] green = new float[MAX_PARTICLES];
+    private final float[] blue = new float[MAX_PARTICLES];
+
+    private int live;
+    private int peak;
+    private long emitted;
+    private long dropped;
+
+    private Texture texture;
+    private TextureRegion region;
+
+    /**
+     * Constructor for the ParticleSystem. Creates the white dot all particles are drawn with.
+     */
+    public ParticleSystem() {
+        Pixmap pixmap = new Pixmap(DOT_SIZE, DOT_SIZE, Pixmap.Format.RGBA8888);
+        pixmap.setColor(1, 1, 1, 1);
+        pixmap.fillCircle(DOT_SIZE / 2, DOT_SIZE / 2, DOT_SIZE / 2 - 1);
+        texture = ResourceTracker.track(new Texture(pixmap), ResourceTracker.Category.TEXTURE,
+                DOT_SIZE * DOT_SIZE * 4, "particle dot");
+        pixmap.dispose();
+        region = new TextureRegion(texture);
+    }
+
+    /**
+     * Emits a burst of particles. Particles that don't fit under MAX_PARTICLES are dropped.
+     * @param effect The kind of burst
+     * @param originX The x coordinate the particles start from
+     * @param originY The y coordinate the particles start from
+     */
+    public void emit(Effect effect, float originX, float originY) {
+        for (int i = 0; i < effect.count; i++) {
+            if (live == MAX_PARTICLES) {
+                dropped += effect.count - i;
+                return;
+            }
+            float angle = effect.direction + MathUtils.random(-effect.spread / 2, effect.spread / 2);
+            float speed = effect.speed * MathUtils.random(0.5f, 1f);
+            int p = live++;
+            x[p] = originX;
+            y[p] = originY;
+            velX[p] = MathUtils.cos(angle) * speed;
+            velY[p] = MathUtils.sin(angle) * speed;
+            maxLife[p] = effect.life * MathUtils.random(0.7f, 1f);
+            life[p] = maxLife[p];
+            gravity[p] = effect.gravity;
+            size[p] = effect.size;
+            red[p] = effect.r;
+            green[p] = effect.g;
+            blue[p] = effect.b;
+            emitted++;
+        }
+        peak = Math.max(peak, live);
+    }
+
+    /**
+     * Moves every live particle and removes the ones that expired. An expired
+     * particle is replaced by the last live one so the live particles stay packed.
+     * @param dt Amount of time passed
+     */
+    public void update(float dt) {
+        int i = 0;
+        while (i < live) {
+            life[i] -= dt;
+            if (life[i] <= 0) {
+                move(--live, i);
+                continue;
+            }
+            velY[i] += gravity[i] * dt;
+            x[i] += velX[i] * dt;
+            y[i] += velY[i] * dt;
+            i++;
+        }
+    }
+
+    /**
+     * Draws every live particle, fading them out as they expire. Must be called
+     * between begin and end of the batch.
+     * @param sb The game's spritebatch
+     */
+    public void render(SpriteBatch sb) {
+        if (live == 0) {
+            return;
+        }
+        for (int i = 0; i < live; i++) {
+            sb.setColor(red[i], green[i], blue[i], life[i] / maxLife[i]);
+            sb.draw(region, x[i] - size[i] / 2, y[i] - size[i] / 2, size[i], size[i]);
+        }
+        sb.setColor(1, 1, 1, 1);
+    }
+
+    /**
+     * Removes every live particle
+     */
+    public void clear() {
+        live = 0;
+    }
+
+    /**
+     * Gets the number of particles currently alive
+     * @return The number of live particles
+     */
+    public int getLiveCount() {
+        return live;
+    }
+
+    /**
+     * Gets the most particles that were alive at once
+     * @return The peak number of live particles
+     */
+    public int getPeakCount() {
+        return peak;
+    }
+
+    /**
+     * Gets the number of particles emitted since the system was created
+     * @return The number of emitted particles
+     */
+    public long getEmittedCount() {
+        return emitted;
+    }
+
+    /**
+     * Gets the number of particles that didn't fit under MAX_PARTICLES
+     * @return The number of dropped particles
+     */
+    public long getDroppedCount() {
+        return dropped;
+    }
+
+    /**
+     * Disposes of the particle texture
+     */
+    public void dispose() {
+        ResourceTracker.dispose(texture);
+    }
+
+    private void move(int from, int to) {
+        x[to] = x[from];
+        y[to] = y[from];
+        velX[to] = velX[from];
+        velY[to] = velY[from];
+        life[to] = life[from];
+        maxLife[to] = maxLife[from];
+        gravity[to] = gravity[from];
+        size[to] = size[from];
+        red[to] = red[from];
+        green[to] = green[from];
+        blue[to] = blue[from];
+    }
+}
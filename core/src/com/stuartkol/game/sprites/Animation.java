@@ -20,11 +20,21 @@ public class Animation {
      * @param cycleTime The amount of time it takes to go through on cycle of frames
      */
     public Animation(TextureRegion region, int frameCount, float cycleTime){
-        frames = new Array<TextureRegion>();
+        this(frameCount, cycleTime);
         int frameWidth = region.getRegionWidth() / frameCount;
         for (int i = 0; i < frameCount; i++) {
             frames.add(new TextureRegion(region, i * frameWidth, 0, frameWidth, region.getRegionHeight()));
         }
+    }
+
+    /**
+     * Constructor for an animation that only keeps track of the current frame, without
+     * any frames to draw. Used to simulate the game without rendering.
+     * @param frameCount The number of frames
+     * @param cycleTime The amount of time it takes to go through on cycle of frames
+     */
+    public Animation(int frameCount, float cycleTime){
+        frames = new Array<TextureRegion>();
         this.frameCount = frameCount;
         maxFrameTime = cycleTime / frameCount;
         frame = 0;
@@ -54,4 +64,30 @@ public class Animation {
     public TextureRegion getFrame(){
         return frames.get(frame);
     }
+
+    /**
+     * Gets the index of the current frame of the animation
+     * @return The index of the current frame
+     */
+    public int getFrameIndex(){
+        return frame;
+    }
+
+    /**
+     * Gets how long the current frame has been shown
+     * @return The time spent on the current frame, in seconds
+     */
+    public float getFrameTime(){
+        return currentFrameTime;
+    }
+
+    /**
+     * Puts the animation back on a previously recorded frame
+     * @param frame The index of the frame to restore
+     * @param frameTime The time already spent on that frame, in seconds
+     */
+    public void restore(int frame, float frameTime){
+        this.frame = frame;
+        currentFrameTime = frameTime;
+    }
 }
@@ -1,23 +1,32 @@
 package com.stuartkol.game.sprites;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector3;
+import com.stuartkol.game.ResourceTracker;
 
 /**
  * Our player is a bird and this class provides the necessary controls
  * and functions of the bird.
  */
 public class Bird {
-    private static final int GRAVITY = -15;
-    private static final int MOVEMENT = 100;
+    // Added to the vertical velocity every update
+    public static final int GRAVITY = -15;
+    // Horizontal speed in pixels per second
+    public static final int MOVEMENT = 100;
+    public static final int JUMP_VELOCITY = 250;
+    // Highest y coordinate the bird can reach
+    public static final int CEILING = 375;
+    public static final int FRAME_COUNT = 3;
+    // Seconds it takes to flap through every frame once
+    public static final float ANIMATION_CYCLE = 0.5f;
     private Vector3 pos;
     private Vector3 vel;
     private Rectangle bounds;
     private Animation birdAnimation;
+    private CollisionMask[] masks;
     private Texture texture;
     private Sound flap;
 
@@ -27,12 +36,26 @@ public class Bird {
      * @param y Starting y coordinate
      */
     public Bird(int x, int y) {
+        this(x, y, CollisionMask.load("birdanimation.png", FRAME_COUNT));
+        texture = ResourceTracker.newTexture("birdanimation.png");
+        birdAnimation = new Animation(new TextureRegion(texture), FRAME_COUNT, ANIMATION_CYCLE);
+        flap = ResourceTracker.newSound("sfx_wing.ogg");
+    }
+
+    /**
+     * Constructor for a bird without a texture or sounds, used to simulate the game
+     * without rendering. Such a bird follows the same rules but can't be drawn.
+     * @param x Starting x coordinate
+     * @param y Starting y coordinate
+     * @param masks The collision mask of every animation frame
+     */
+    public Bird(int x, int y, CollisionMask[] masks) {
         pos = new Vector3(x, y, 0);
         vel = new Vector3(0, 0, 0);
-        texture = new Texture("birdanimation.png");
-        birdAnimation = new Animation(new TextureRegion(texture), 3, 0.5f);
-        bounds = new Rectangle(x, y, texture.getWidth() / 3, texture.getHeight());
-        flap = Gdx.audio.newSound(Gdx.files.internal("sfx_wing.ogg"));
+        this.masks = masks;
+        birdAnimation = new Animation(masks.length, ANIMATION_CYCLE);
+        // The hit-box is one frame of the animation
+        bounds = new Rectangle(x, y, masks[0].getWidth(), masks[0].getHeight());
     }
 
     /**
@@ -51,8 +74,8 @@ public class Bird {
         pos.add(MOVEMENT * dt, vel.y, 0);
         if (pos.y < 0) {
             pos.y = 0;
-        } else if (pos.y > 375) {
-            pos.y = 375;
+        } else if (pos.y > CEILING) {
+            pos.y = CEILING;
         }
 
         // Reset scale to 1
@@ -69,6 +92,39 @@ public class Bird {
         return pos;
     }
 
+    /**
+     * Gets the current velocity of the bird as an (x, y, z) vector
+     * @return vel An (x, y, z) vector representing the velocity
+     *      of the bird
+     */
+    public Vector3 getVel() {
+        return vel;
+    }
+
+    /**
+     * Puts the bird back at a previously recorded position, vertical velocity and
+     * animation frame. The frame matters because it picks the collision mask.
+     * @param x The x coordinate to restore
+     * @param y The y coordinate to restore
+     * @param velY The vertical velocity to restore
+     * @param frame The animation frame to restore
+     * @param frameTime The time already spent on that frame, in seconds
+     */
+    public void restore(float x, float y, float velY, int frame, float frameTime) {
+        pos.set(x, y, 0);
+        vel.set(0, velY, 0);
+        bounds.setPosition(x, y);
+        birdAnimation.restore(frame, frameTime);
+    }
+
+    /**
+     * Gets the bird's animation, whose current frame picks the collision mask
+     * @return The animation
+     */
+    public Animation getAnimation() {
+        return birdAnimation;
+    }
+
     /**
      * Gets the current frame of the animation the bird is currently in
      * @return The current animation frame
@@ -79,12 +135,17 @@ public class Bird {
 
     /**
      * Causes the bird to "jump" by increasing its' upwards velocity
+     * @return True if the bird jumped, false if it is already at the top
      */
-    public void jump(){
-        if (pos.y < 375) {
-            vel.y = 250;
-            flap.play(0.5f);
+    public boolean jump(){
+        if (pos.y < CEILING) {
+            vel.y = JUMP_VELOCITY;
+            if (flap != null) {
+                flap.play(0.5f);
+            }
+            return true;
         }
+        return false;
     }
 
     /**
@@ -95,11 +156,19 @@ public class Bird {
         return bounds;
     }
 
+    /**
+     * Gets the pixel hit-box of the current animation frame
+     * @return The collision mask of the current frame
+     */
+    public CollisionMask getMask(){
+        return masks[birdAnimation.getFrameIndex()];
+    }
+
     /**
      * Disposes of textures and sounds
      */
     public void dispose(){
-        texture.dispose();
-        flap.dispose();
+        ResourceTracker.dispose(texture);
+        ResourceTracker.dispose(flap);
     }
 }
@@ -0,0 +1,164 @@
+package com.stuartkol.game.sprites;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * A hit-box made from the opaque pixels of an image. Each row of pixels is packed
+ * into the bits of a long, so two masks can be tested against each other one row
+ * at a time with a shift and an AND. Masks are only meant to be checked after the
+ * rectangular hit-boxes already overlap.
+ *
+ * Row 0 is the bottom row of the image, matching the game's y axis, and bit i of a
+ * row is column i.
+ */
+public class CollisionMask {
+    public static final int MAX_WIDTH = 64;
+    // Pixels at least this opaque count as solid
+    private static final int ALPHA_THRESHOLD = 128;
+
+    // Masks are built once per image and shared by every sprite using it
+    private static ObjectMap<String, CollisionMask[]> cache = new ObjectMap<String, CollisionMask[]>();
+
+    private final int width;
+    private final int height;
+    private final long[] rows;
+
+    /**
+     * Constructor for an empty mask
+     * @param width The width in pixels, at most MAX_WIDTH
+     * @param height The height in pixels
+     */
+    public CollisionMask(int width, int height) {
+        if (width > MAX_WIDTH) {
+            throw new IllegalArgumentException("Mask width " + width + " is wider than " + MAX_WIDTH);
+        }
+        this.width = width;
+        this.height = height;
+        rows = new long[height];
+    }
+
+    /**
+     * Gets the masks of an image split horizontally into equally wide frames. The image
+     * is only read the first time, later calls return the same masks.
+     * @param path The internal path of the image
+     * @param frameCount The number of frames in the image
+     * @return One mask per frame
+     */
+    public static CollisionMask[] load(String path, int frameCount) {
+        CollisionMask[] masks = cache.get(path);
+        if (masks != null) {
+            return masks;
+        }
+
+        Pixmap pixmap = new Pixmap(Gdx.files.internal(path));
+        int width = pixmap.getWidth();
+        int height = pixmap.getHeight();
+        int[] alpha = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                // getPixel returns RGBA8888, so alpha is the lowest byte
+                alpha[y * width + x] = pixmap.getPixel(x, y) & 0xff;
+            }
+        }
+        pixmap.dispose();
+
+        masks = fromAlpha(alpha, width, height, frameCount);
+        cache.put(path, masks);
+        return masks;
+    }
+
+    /**
+     * Builds the masks of an image split horizontally into equally wide frames from the
+     * alpha values of its pixels. Used where images are read without libGDX's Pixmap.
+     * @param alpha The alpha value, from 0 to 255, of every pixel of the image, row by
+     *              row starting from the top row
+     * @param width The width of the whole image
+     * @param height The height of the image
+     * @param frameCount The number of frames in the image
+     * @return One mask per frame
+     */
+    public static CollisionMask[] fromAlpha(int[] alpha, int width, int height, int frameCount) {
+        int frameWidth = width / frameCount;
+        CollisionMask[] masks = new CollisionMask[frameCount];
+        for (int frame = 0; frame < frameCount; frame++) {
+            CollisionMask mask = new CollisionMask(frameWidth, height);
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < frameWidth; x++) {
+                    if (alpha[y * width + frame * frameWidth + x] >= ALPHA_THRESHOLD) {
+                        // Image rows start at the top
+                        mask.set(x, height - 1 - y);
+                    }
+                }
+            }
+            masks[frame] = mask;
+        }
+        return masks;
+    }
+
+    /**
+     * Marks a pixel as solid
+     * @param x The column, starting from the left
+     * @param y The row, starting from the bottom
+     */
+    public void set(int x, int y) {
+        rows[y] |= 1L << x;
+    }
+
+    /**
+     * Returns whether a pixel is solid
+     * @param x The column, starting from the left
+     * @param y The row, starting from the bottom
+     * @return True if the pixel is solid
+     */
+    public boolean isSet(int x, int y) {
+        return (rows[y] & (1L << x)) != 0;
+    }
+
+    /**
+     * Gets the width of the mask
+     * @return The width in pixels
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the height of the mask
+     * @return The height in pixels
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns whether any solid pixel of this mask touches a solid pixel of another
+     * mask. Positions are rounded down to whole pixels.
+     * @param x The x coordinate of this mask's bottom left corner
+     * @param y The y coordinate of this mask's bottom left corner
+     * @param other The other mask
+     * @param otherX The x coordinate of the other mask's bottom left corner
+     * @param otherY The y coordinate of the other mask's bottom left corner
+     * @return True if the masks overlap
+     */
+    public boolean overlaps(float x, float y, CollisionMask other, float otherX, float otherY) {
+        int dx = MathUtils.floor(otherX) - MathUtils.floor(x);
+        int dy = MathUtils.floor(otherY) - MathUtils.floor(y);
+        if (dx >= width || -dx >= other.width) {
+            return false;
+        }
+
+        int start = Math.max(0, dy);
+        int end = Math.min(height, dy + other.height);
+        for (int row = start; row < end; row++) {
+            long otherRow = other.rows[row - dy];
+            long shifted = dx >= 0 ? otherRow << dx : otherRow >>> -dx;
+            if ((rows[row] & shifted) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
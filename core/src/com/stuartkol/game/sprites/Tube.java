@@ -1,12 +1,10 @@
 package com.stuartkol.game.sprites;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
-
-import java.util.Random;
+import com.stuartkol.game.ResourceTracker;
 
 /**
  * This class represents a pair of tubes that act as obstacles in this game, Flappy Bird.
@@ -19,37 +17,51 @@ import java.util.Random;
 public class Tube {
     public static final int TUBE_WIDTH = 52;
     // Fluctuation of tube y placement
-    private static final int FLUCTUATION =  130;
-    private static final int TUBE_GAP = 80;
+    public static final int FLUCTUATION =  130;
+    public static final int TUBE_GAP = 80;
     // Lower bound for tube y placement
-    private static final int LOWEST_OPENING = 120;
+    public static final int LOWEST_OPENING = 120;
     private Texture topTube, bottomTube;
     private Vector2 posTopTube, posBotTube, posScore;
     private Rectangle boundsTop, boundsBot, boundsScore;
-    private Random rand;
+    private CollisionMask maskTop, maskBot;
     private Sound point;
+    private boolean scored;
 
     /**
      * Constructor for one set of tubes, a top tube and a bottom tube that function as a pair
      * @param x The initial starting x position of the pair
+     * @param y The initial y position of the top tube
+     */
+    public Tube(float x, float y) {
+        this(x, y, CollisionMask.load("toptube.png", 1)[0], CollisionMask.load("bottomtube.png", 1)[0]);
+        topTube = ResourceTracker.newTexture("toptube.png");
+        bottomTube = ResourceTracker.newTexture("bottomtube.png");
+        point = ResourceTracker.newSound("point.mp3");
+    }
+
+    /**
+     * Constructor for a pair of tubes without textures or sounds, used to simulate the
+     * game without rendering. The masks are the same size as the tube images.
+     * @param x The initial starting x position of the pair
+     * @param y The initial y position of the top tube
+     * @param maskTop The pixel hit-box of the top tube
+     * @param maskBot The pixel hit-box of the bottom tube
      */
-    public Tube(float x) {
-        topTube = new Texture("toptube.png");
-        bottomTube = new Texture("bottomtube.png");
-        rand = new Random();
+    public Tube(float x, float y, CollisionMask maskTop, CollisionMask maskBot) {
+        this.maskTop = maskTop;
+        this.maskBot = maskBot;
 
-        posTopTube = new Vector2(x, rand.nextInt(FLUCTUATION) + TUBE_GAP + LOWEST_OPENING);
-        posBotTube = new Vector2(x, posTopTube.y - TUBE_GAP - bottomTube.getHeight());
+        posTopTube = new Vector2(x, y);
+        posBotTube = new Vector2(x, posTopTube.y - TUBE_GAP - maskBot.getHeight());
 
-        posScore = new Vector2(x + (bottomTube.getWidth() / 2), posBotTube.y + bottomTube.getHeight());
+        posScore = new Vector2(x + (maskBot.getWidth() / 2), posBotTube.y + maskBot.getHeight());
 
-        boundsTop = new Rectangle(posTopTube.x, posTopTube.y, topTube.getWidth(), topTube.getHeight());
-        boundsBot = new Rectangle(posBotTube.x, posBotTube.y, bottomTube.getWidth(), bottomTube.getHeight());
+        boundsTop = new Rectangle(posTopTube.x, posTopTube.y, maskTop.getWidth(), maskTop.getHeight());
+        boundsBot = new Rectangle(posBotTube.x, posBotTube.y, maskBot.getWidth(), maskBot.getHeight());
 
         // Score hit-box
-        boundsScore = new Rectangle(posScore.x, posScore.y, bottomTube.getWidth(), TUBE_GAP);
-
-        point = Gdx.audio.newSound(Gdx.files.internal("point.mp3"));
+        boundsScore = new Rectangle(posScore.x, posScore.y, maskBot.getWidth(), TUBE_GAP);
     }
 
     /**
@@ -87,32 +99,62 @@ public class Tube {
     }
 
     /**
-     * Repositions a pair of tubes to a given position and randomizes the
-     * pair's y coordinate along with the pair's hit-box. The score hit-box
-     * is moved to the same new position as well.
+     * Repositions a pair of tubes to a given position along with the pair's
+     * hit-box. The score hit-box is moved to the same new position as well.
      * @param x The new x coordinate the tube pair should take
+     * @param y The new y coordinate of the top tube, chosen by the course
+     */
+    public void reposition(float x, float y) {
+        restore(x, y, false);
+    }
+
+    /**
+     * Puts the pair of tubes at an exact position, used to restore a snapshot.
+     * @param x The x coordinate of the pair
+     * @param y The y coordinate of the top tube
+     * @param scored Whether the player already scored on this pair
      */
-    public void reposition(float x) {
-        posTopTube.set(x, rand.nextInt(FLUCTUATION) + TUBE_GAP + LOWEST_OPENING);
-        posBotTube.set(x, posTopTube.y - TUBE_GAP - bottomTube.getHeight());
+    public void restore(float x, float y, boolean scored) {
+        this.scored = scored;
+        posTopTube.set(x, y);
+        posBotTube.set(x, posTopTube.y - TUBE_GAP - maskBot.getHeight());
 
-        posScore.set(x + (bottomTube.getWidth() / 2), posBotTube.y + bottomTube.getHeight());
+        posScore.set(x + (maskBot.getWidth() / 2), posBotTube.y + maskBot.getHeight());
 
         boundsTop.setPosition(posTopTube.x, posTopTube.y);
         boundsBot.setPosition(posBotTube.x, posBotTube.y);
 
-        boundsScore.setPosition(posScore.x, posScore.y);
+        if (scored) {
+            boundsScore.setPosition(posScore.x + 1000, posScore.y + 1000);
+        } else {
+            boundsScore.setPosition(posScore.x, posScore.y);
+        }
+    }
+
+    /**
+     * Returns whether the player already scored on this pair of tubes
+     * @return True if the score hit-box was already passed
+     */
+    public boolean isScored() {
+        return scored;
     }
 
     /**
-     * Returns a boolean representing whether or not the hit-box of either the
-     * top tube or bottom tube are currently overlapping with the player's hit-box
+     * Returns a boolean representing whether or not the player is currently touching
+     * either the top tube or bottom tube. The pixel masks are only compared once the
+     * rectangular hit-boxes overlap.
      * @param player The hit-box of the player
+     * @param playerMask The pixel hit-box of the player
      * @return True if the player overlaps with either tube and false if the player
      * isn't overlapping either tube at all
      */
-    public boolean collides(Rectangle player){
-        return player.overlaps(boundsTop) || player.overlaps(boundsBot);
+    public boolean collides(Rectangle player, CollisionMask playerMask){
+        if (player.overlaps(boundsTop)
+                && playerMask.overlaps(player.x, player.y, maskTop, posTopTube.x, posTopTube.y)) {
+            return true;
+        }
+        return player.overlaps(boundsBot)
+                && playerMask.overlaps(player.x, player.y, maskBot, posBotTube.x, posBotTube.y);
     }
 
     /**
@@ -128,16 +170,20 @@ public class Tube {
         if (scored) {
             // move off screen to prevent unintentional additional scoring
             boundsScore.setPosition(posScore.x + 1000, posScore.y + 1000);
-            point.play(1.0f);
+            this.scored = true;
+            if (point != null) {
+                point.play(1.0f);
+            }
         }
         return scored;
     }
 
     /**
-     * Disposes of textures
+     * Disposes of textures and sounds
      */
     public void dispose(){
-        topTube.dispose();
-        bottomTube.dispose();
+        ResourceTracker.dispose(topTube);
+        ResourceTracker.dispose(bottomTube);
+        ResourceTracker.dispose(point);
     }
 }
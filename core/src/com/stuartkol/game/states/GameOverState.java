@@ -5,6 +5,7 @@ import com.badlogic.gdx.audio.Music;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.stuartkol.game.FlappyDemo;
+import com.stuartkol.game.ResourceTracker;
 
 /**
  * This class represents a state of the game where the player made a mistake
@@ -26,10 +27,10 @@ public class GameOverState extends State{
         super(gsm);
         created = false;
         cam.setToOrtho(false, FlappyDemo.WIDTH / 2, FlappyDemo.HEIGHT / 2);
-        background = new Texture("bg.png");
-        gameover = new Texture("gameover.png");
+        background = ResourceTracker.newTexture("bg.png");
+        gameover = ResourceTracker.newTexture("gameover.png");
 
-        music = Gdx.audio.newMusic(Gdx.files.internal("gameovermusic.mp3"));
+        music = ResourceTracker.newMusic("gameovermusic.mp3");
         music.setLooping(true);
         music.play();
         created = true;
@@ -46,6 +47,15 @@ public class GameOverState extends State{
         }
     }
 
+    /**
+     * The game over screen is static, so it is only redrawn when input arrives
+     * @return false
+     */
+    @Override
+    public boolean isContinuous() {
+        return false;
+    }
+
     /**
      * Checks for any input
      * @param dt Amount of time passed
@@ -73,9 +83,9 @@ public class GameOverState extends State{
      */
     @Override
     public void dispose() {
-        background.dispose();
-        gameover.dispose();
-        music.dispose();
+        ResourceTracker.dispose(background);
+        ResourceTracker.dispose(gameover);
+        ResourceTracker.dispose(music);
         System.out.println("GameOverState Disposed");
     }
 }
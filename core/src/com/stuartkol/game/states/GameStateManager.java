@@ -1,6 +1,8 @@
 package com.stuartkol.game.states;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.stuartkol.game.FlappyDemo;
+import com.stuartkol.game.ResourceTracker;
 
 import java.util.Stack;
 
@@ -26,6 +28,7 @@ public class GameStateManager {
      */
     public void push(State state){
         states.push(state);
+        ResourceTracker.setOwner(state);
     }
 
     /**
@@ -33,7 +36,8 @@ public class GameStateManager {
      * with the previous state if it exists
      */
     public void pop(){
-        states.pop().dispose();
+        disposeTop();
+        ResourceTracker.setOwner(states.isEmpty() ? null : states.peek());
     }
 
     /**
@@ -41,8 +45,29 @@ public class GameStateManager {
      * @param state The state to be set
      */
     public void set(State state){
-        states.pop().dispose();
-        states.push(state);
+        disposeTop();
+        push(state);
+        if (FlappyDemo.isDebug()) {
+            ResourceTracker.report();
+        }
+    }
+
+    /**
+     * Disposes of every state that is still on the stack
+     */
+    public void dispose(){
+        while (!states.isEmpty()) {
+            pop();
+        }
+    }
+
+    /**
+     * Disposes of the current state and checks that it released everything it owned
+     */
+    private void disposeTop(){
+        State state = states.pop();
+        state.dispose();
+        ResourceTracker.release(state);
     }
 
     /**
@@ -53,6 +78,22 @@ public class GameStateManager {
         states.peek().update(dt);
     }
 
+    /**
+     * Returns whether the current state needs to be redrawn every frame
+     * @return True if the current state animates on its own
+     */
+    public boolean isContinuous(){
+        return states.peek().isContinuous();
+    }
+
+    /**
+     * Returns the name of the current state, used for frame time reports
+     * @return The simple class name of the current state
+     */
+    public String getCurrentName(){
+        return states.peek().getClass().getSimpleName();
+    }
+
     /**
      * Calls render method of the current state
      * @param sb The game's spritebatch
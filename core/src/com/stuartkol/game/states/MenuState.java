@@ -7,6 +7,7 @@ import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector3;
 import com.stuartkol.game.FlappyDemo;
+import com.stuartkol.game.ResourceTracker;
 
 /**
  * This class represent the menu state of the game. It should allow
@@ -32,11 +33,11 @@ public class MenuState extends State{
         super(gsm);
         created = false;
         cam.setToOrtho(false, FlappyDemo.WIDTH / 2, FlappyDemo.HEIGHT / 2);
-        background = new Texture("bg.png");
-        playBtn = new Texture("playbtn.png");
-        title = new Texture("title.png");
+        background = ResourceTracker.newTexture("bg.png");
+        playBtn = ResourceTracker.newTexture("playbtn.png");
+        title = ResourceTracker.newTexture("title.png");
 
-        music = Gdx.audio.newMusic(Gdx.files.internal("menumusic.mp3"));
+        music = ResourceTracker.newMusic("menumusic.mp3");
         music.setLooping(true);
         music.play();
         created = true;
@@ -59,6 +60,15 @@ public class MenuState extends State{
         }
     }
 
+    /**
+     * The menu is static, so it is only redrawn when input arrives
+     * @return false
+     */
+    @Override
+    public boolean isContinuous() {
+        return false;
+    }
+
     /**
      * Checks for any input
      * @param dt Amount of time passed
@@ -89,10 +99,10 @@ public class MenuState extends State{
      */
     @Override
     public void dispose() {
-        background.dispose();
-        playBtn.dispose();
-        title.dispose();
-        music.dispose();
+        ResourceTracker.dispose(background);
+        ResourceTracker.dispose(playBtn);
+        ResourceTracker.dispose(title);
+        ResourceTracker.dispose(music);
         System.out.println("MenuState Disposed");
     }
 }
@@ -1,15 +1,21 @@
 package com.stuartkol.game.states;
 
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
 import com.badlogic.gdx.audio.Music;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.GlyphLayout;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Array;
 import com.stuartkol.game.FlappyDemo;
+import com.stuartkol.game.ResourceTracker;
+import com.stuartkol.game.course.CourseGenerator;
+import com.stuartkol.game.course.CourseSolver;
+import com.stuartkol.game.effects.ParticleSystem;
 import com.stuartkol.game.sprites.Bird;
 import com.stuartkol.game.sprites.Tube;
 
@@ -19,15 +25,28 @@ import com.stuartkol.game.sprites.Tube;
  * themselves through obstacles.
  */
 public class PlayState extends State {
-    private static final int TUBE_SPACING = 125;
-    private static final int TUBE_COUNT = 4;
-    private static final int GROUND_Y_OFFSET = -50;
+    public static final int TUBE_SPACING = 125;
+    public static final int TUBE_COUNT = 4;
+    public static final int GROUND_Y_OFFSET = -50;
+    public static final int BIRD_START_X = 50;
+    public static final int BIRD_START_Y = 225;
+    // How far the camera stays ahead of the bird
+    public static final int CAMERA_OFFSET = 80;
+    // Game-play advances in fixed ticks so every tick can be snapshotted and replayed
+    public static final float TICK = 1 / 60f;
+    // Longest frame simulated in one go, so a stall doesn't turn into a burst of ticks
+    private static final float MAX_FRAME_TIME = 0.25f;
+    public static final int SNAPSHOT_TICKS = 4 * 60;
+    // How far back a continue puts the player after a crash
+    public static final int CONTINUE_TICKS = 3 * 60;
+    public static final int CONTINUES = 1;
+    // How long the crash debris is shown before continuing or ending the game
+    private static final float CRASH_TIME = 0.6f;
 
     private Bird bird;
     private Texture bg;
     private Texture ground;
     private Vector2 groundPos1, groundPos2;
-    private int score = 0;
     private BitmapFont scoreBoard;
 
     Music music;
@@ -35,6 +54,16 @@ public class PlayState extends State {
     private boolean created;
 
     private Array<Tube> tubes;
+    private CourseGenerator course;
+    private PlayWorld world;
+
+    private float accumulator;
+    private boolean jumpPending;
+    private boolean rewinding;
+    private boolean finished;
+    private float crashTimer;
+
+    private ParticleSystem particles;
 
     /**
      * Constructor for the PlayState
@@ -43,72 +72,140 @@ public class PlayState extends State {
     protected PlayState(GameStateManager gsm) {
         super(gsm);
         created = false;
-        bird = new Bird(50, 225);
+        bird = new Bird(BIRD_START_X, BIRD_START_Y);
         cam.setToOrtho(false, FlappyDemo.WIDTH / 2, FlappyDemo.HEIGHT / 2);
-        bg = new Texture("bg.png");
-        ground = new Texture("ground.png");
+        bg = ResourceTracker.newTexture("bg.png");
+        ground = ResourceTracker.newTexture("ground.png");
         groundPos1 = new Vector2(cam.position.x - cam.viewportWidth / 2, GROUND_Y_OFFSET);
         groundPos2 = new Vector2((cam.position.x - cam.viewportWidth / 2) + ground.getWidth(), GROUND_Y_OFFSET);
 
         tubes = new Array<Tube>();
-
+        // Tubes start off screen and are put in place once the course is ready
         for (int i = 0; i < TUBE_COUNT; i++) {
-            tubes.add(new Tube((i + 2)*(TUBE_SPACING + Tube.TUBE_WIDTH)));
+            tubes.add(new Tube(CourseSolver.tubeX(i), Tube.LOWEST_OPENING + Tube.TUBE_GAP));
         }
 
-        scoreBoard = new BitmapFont();
+        CourseSolver solver = new CourseSolver(bird.getBounds().width, bird.getBounds().height,
+                ground.getHeight() + GROUND_Y_OFFSET);
+        course = new CourseGenerator(MathUtils.random.nextLong(), solver);
+        course.start();
+        world = new PlayWorld(bird, tubes, course, ground.getHeight() + GROUND_Y_OFFSET);
 
-        music = Gdx.audio.newMusic(Gdx.files.internal("gameplaymusic.mp3"));
+        scoreBoard = ResourceTracker.newFont();
+        particles = new ParticleSystem();
+
+        music = ResourceTracker.newMusic("gameplaymusic.mp3");
         music.setLooping(true);
         music.play();
         created = true;
     }
 
     /**
-     * When the screen is touched, the bird jumps
+     * When the screen is touched, the bird jumps on the next tick. In debug builds,
+     * holding R rewinds the game one tick at a time.
      */
     @Override
     protected void handleInput() {
         if (Gdx.input.justTouched()) {
-            bird.jump();
+            jumpPending = true;
         }
+        rewinding = FlappyDemo.isDebug() && Gdx.input.isKeyPressed(Input.Keys.R);
     }
 
     /**
-     * Checks for any user input and reacts accordingly. Also checks for collisions
-     * between the bird and tubes/scoring.
+     * Checks for any user input and runs as many fixed ticks as the time passed allows
      * @param dt Amount of time passed
      */
     @Override
     public void update(float dt) {
         handleInput();
-        updateGround();
-        bird.update(dt);
-        cam.position.x = bird.getPos().x + 80;
-
-        for (Tube tube: tubes){
-            if (cam.position.x - (cam.viewportWidth / 2) >
-                    tube.getPosTopTube().x + tube.getTopTube().getWidth()) {
-                tube.reposition(tube.getPosTopTube().x +
-                        ((Tube.TUBE_WIDTH + TUBE_SPACING) * TUBE_COUNT));
+        particles.update(dt);
+        if (crashTimer > 0) {
+            crashTimer -= dt;
+            if (crashTimer <= 0) {
+                endCrash();
             }
+            return;
+        }
 
-            if (tube.collides(bird.getBounds())){
-                music.stop();
-                gsm.set(new GameOverState(gsm));
-                break;
-            }
+        // The tubes are put in place once the course generator has solved their gaps.
+        // Until then the game waits without blocking, while the tubes are still off screen.
+        if (!world.start()) {
+            return;
+        }
 
-            if (tube.scores(bird.getBounds())){
-                score++;
-                System.out.println("Score: " + score);
-            }
+        accumulator += Math.min(dt, MAX_FRAME_TIME);
+        while (accumulator >= TICK && crashTimer <= 0 && !finished) {
+            accumulator -= TICK;
+            tick();
+        }
+    }
+
+    /**
+     * Advances the game by one tick and adds effects for whatever happened in it
+     */
+    private void tick() {
+        if (rewinding) {
+            world.rewind(1);
+            followBird();
+            return;
+        }
+
+        updateGround();
+        int events = world.tick(jumpPending);
+        jumpPending = false;
+        cam.position.x = bird.getPos().x + CAMERA_OFFSET;
+
+        if ((events & PlayWorld.JUMPED) != 0) {
+            particles.emit(ParticleSystem.Effect.FEATHERS, birdCenterX(), birdCenterY());
+        }
+        if ((events & PlayWorld.SCORED) != 0) {
+            particles.emit(ParticleSystem.Effect.SPARKLES, birdCenterX(), birdCenterY());
+            System.out.println("Score: " + world.getScore());
+        }
+        if ((events & PlayWorld.CRASHED) != 0) {
+            crash();
+            return;
         }
+        cam.update();
+    }
+
+    /**
+     * Stops the game for a moment and shows the bird breaking apart
+     */
+    private void crash() {
+        cam.update();
+        particles.emit(ParticleSystem.Effect.DEBRIS, birdCenterX(), birdCenterY());
+        crashTimer = CRASH_TIME;
+    }
 
-        if (bird.getPos().y <= ground.getHeight() + GROUND_Y_OFFSET) {
-            music.stop();
-            gsm.set(new GameOverState(gsm));
+    /**
+     * Puts the player back a few seconds if they have a continue left,
+     * otherwise ends the game
+     */
+    private void endCrash() {
+        accumulator = 0;
+        jumpPending = false;
+        if (world.useContinue()) {
+            particles.clear();
+            followBird();
+            return;
         }
+        finished = true;
+        music.stop();
+        gsm.set(new GameOverState(gsm));
+    }
+
+    /**
+     * Moves the camera back to the bird and lines the ground up with it again,
+     * after the world was rewound
+     */
+    private void followBird() {
+        cam.position.x = bird.getPos().x + CAMERA_OFFSET;
+        float width = ground.getWidth();
+        groundPos1.x = MathUtils.floor((cam.position.x - cam.viewportWidth / 2) / (width * 2)) * width * 2;
+        groundPos2.x = groundPos1.x + width;
+        updateGround();
         cam.update();
     }
 
@@ -127,17 +224,27 @@ public class PlayState extends State {
             sb.draw(tube.getBottomTube(), tube.getPosBotTube().x, tube.getPosBotTube().y);
         }
 
+        particles.render(sb);
+
         sb.draw(ground, groundPos1.x, groundPos1.y);
         sb.draw(ground, groundPos2.x, groundPos2.y);
 
         scoreBoard.setColor(Color.GOLD);
         scoreBoard.getRegion().getTexture().setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
         scoreBoard.getData().setScale(2.0f);
-        GlyphLayout layout = new GlyphLayout(scoreBoard, "" + score);
-        scoreBoard.draw(sb, "" + score, cam.position.x - (layout.width / 2), (cam.position.y * 7) / 4);
+        GlyphLayout layout = new GlyphLayout(scoreBoard, "" + world.getScore());
+        scoreBoard.draw(sb, "" + world.getScore(), cam.position.x - (layout.width / 2), (cam.position.y * 7) / 4);
         sb.end();
     }
 
+    private float birdCenterX(){
+        return bird.getPos().x + bird.getBounds().width / 2;
+    }
+
+    private float birdCenterY(){
+        return bird.getPos().y + bird.getBounds().height / 2;
+    }
+
     /**
      * Updates the ground to give it the illusion of movement
      */
@@ -155,13 +262,20 @@ public class PlayState extends State {
      */
     @Override
     public void dispose() {
-        bg.dispose();
+        ResourceTracker.dispose(bg);
         bird.dispose();
         for(Tube tube: tubes){
             tube.dispose();
         }
-        ground.dispose();
-        music.dispose();
+        ResourceTracker.dispose(ground);
+        ResourceTracker.dispose(music);
+        ResourceTracker.dispose(scoreBoard);
+        particles.dispose();
+        course.stop();
+        if (FlappyDemo.isDebug()) {
+            System.out.println("Particles: " + particles.getEmittedCount() + " emitted, "
+                    + particles.getPeakCount() + " peak, " + particles.getDroppedCount() + " dropped");
+        }
         System.out.println("PlayState Disposed");
     }
 }
@@ -0,0 +1,184 @@
+package com.stuartkol.game.states;
+
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+import com.stuartkol.game.FlappyDemo;
+import com.stuartkol.game.course.Course;
+import com.stuartkol.game.course.CourseSolver;
+import com.stuartkol.game.sprites.Animation;
+import com.stuartkol.game.sprites.Bird;
+import com.stuartkol.game.sprites.Tube;
+
+/**
+ * The rules of the game-play without any rendering: the bird, the tubes, the score and
+ * continues, advanced one fixed tick at a time. PlayState draws the world and adds
+ * sounds and effects for the events each tick reports. The verification server
+ * replays submitted runs with this same class, so a run replays exactly as it was played.
+ *
+ * Every tick is recorded into a SnapshotBuffer, which continues and rewinding go back through.
+ */
+public class PlayWorld {
+    // Events reported by tick, combined as bits
+    public static final int JUMPED = 1;
+    public static final int SCORED = 2;
+    public static final int CRASHED = 4;
+
+    private static final float VIEWPORT_WIDTH = FlappyDemo.WIDTH / 2;
+
+    private final Bird bird;
+    private final Array<Tube> tubes;
+    private final Course course;
+    private final float groundTop;
+    final SnapshotBuffer snapshots;
+
+    private boolean started;
+    private int score;
+    // Index of the course gap the next repositioned tube takes
+    private int nextGap;
+    private int continuesLeft;
+
+    /**
+     * Constructor for the PlayWorld
+     * @param bird The bird, at its starting position
+     * @param tubes The tubes, which keep their position until the course is ready
+     * @param course The course the tubes take their gaps from
+     * @param groundTop The y coordinate at or below which the bird has hit the ground
+     */
+    public PlayWorld(Bird bird, Array<Tube> tubes, Course course, float groundTop) {
+        this.bird = bird;
+        this.tubes = tubes;
+        this.course = course;
+        this.groundTop = groundTop;
+        snapshots = new SnapshotBuffer(PlayState.SNAPSHOT_TICKS, tubes.size);
+        continuesLeft = PlayState.CONTINUES;
+    }
+
+    /**
+     * Puts the tubes on their first gaps once the course has them ready. The world
+     * can't tick before then. Calling this again after it succeeded does nothing.
+     * @return True if the world has started
+     */
+    public boolean start() {
+        if (started) {
+            return true;
+        }
+        if (!course.isReady(tubes.size - 1)) {
+            return false;
+        }
+        for (int i = 0; i < tubes.size; i++) {
+            tubes.get(i).reposition(CourseSolver.tubeX(i), course.getGap(i));
+        }
+        nextGap = tubes.size;
+        started = true;
+        saveSnapshot();
+        return true;
+    }
+
+    /**
+     * Advances the world by one tick. Moves the bird, moves tubes that fell behind the
+     * camera to their next gap, checks for collisions between the bird and tubes/scoring,
+     * and snapshots the result. A tick that crashes isn't snapshotted.
+     * @param jump Whether the player jumped on this tick
+     * @return The events of the tick, any of JUMPED, SCORED and CRASHED
+     */
+    public int tick(boolean jump) {
+        int events = 0;
+        if (jump && bird.jump()) {
+            events |= JUMPED;
+        }
+        bird.update(PlayState.TICK);
+        float cameraLeft = bird.getPos().x + PlayState.CAMERA_OFFSET - VIEWPORT_WIDTH / 2;
+
+        for (int i = 0; i < tubes.size; i++) {
+            Tube tube = tubes.get(i);
+            // A tube whose next gap isn't solved yet stays behind the camera until it is
+            if (cameraLeft > tube.getPosTopTube().x + Tube.TUBE_WIDTH && course.isReady(nextGap)) {
+                tube.reposition(tube.getPosTopTube().x +
+                        ((Tube.TUBE_WIDTH + PlayState.TUBE_SPACING) * tubes.size), course.getGap(nextGap));
+                nextGap++;
+            }
+
+            if (tube.collides(bird.getBounds(), bird.getMask())) {
+                return events | CRASHED;
+            }
+
+            if (tube.scores(bird.getBounds())) {
+                score++;
+                events |= SCORED;
+            }
+        }
+
+        if (bird.getPos().y <= groundTop) {
+            return events | CRASHED;
+        }
+        saveSnapshot();
+        return events;
+    }
+
+    /**
+     * Uses up a continue after a crash, putting the world back a few seconds
+     * @return True if a continue was left, false if the game is over
+     */
+    public boolean useContinue() {
+        if (continuesLeft == 0) {
+            return false;
+        }
+        continuesLeft--;
+        rewind(PlayState.CONTINUE_TICKS);
+        return true;
+    }
+
+    /**
+     * Puts the world back to the state it was in a number of ticks ago. The existing
+     * bird and tubes are moved back in place rather than being rebuilt.
+     * @param ticks The number of ticks to go back, limited to the oldest snapshot kept
+     */
+    public void rewind(int ticks) {
+        int slot = snapshots.rewind(ticks);
+        if (slot < 0) {
+            return;
+        }
+        bird.restore(snapshots.birdX[slot], snapshots.birdY[slot], snapshots.birdVelY[slot],
+                snapshots.birdFrame[slot], snapshots.birdFrameTime[slot]);
+        score = snapshots.score[slot];
+        nextGap = snapshots.nextGap[slot];
+
+        int base = slot * snapshots.tubeCount;
+        for (int i = 0; i < tubes.size; i++) {
+            tubes.get(i).restore(snapshots.tubeX[base + i], snapshots.tubeY[base + i],
+                    snapshots.tubeScored[base + i]);
+        }
+    }
+
+    /**
+     * Gets the current score
+     * @return The number of tubes passed
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Records the current tick into the snapshot buffer
+     */
+    void saveSnapshot() {
+        int slot = snapshots.next();
+        Vector3 birdPos = bird.getPos();
+        snapshots.birdX[slot] = birdPos.x;
+        snapshots.birdY[slot] = birdPos.y;
+        snapshots.birdVelY[slot] = bird.getVel().y;
+        Animation animation = bird.getAnimation();
+        snapshots.birdFrame[slot] = animation.getFrameIndex();
+        snapshots.birdFrameTime[slot] = animation.getFrameTime();
+        snapshots.score[slot] = score;
+        snapshots.nextGap[slot] = nextGap;
+
+        int base = slot * snapshots.tubeCount;
+        for (int i = 0; i < tubes.size; i++) {
+            Tube tube = tubes.get(i);
+            snapshots.tubeX[base + i] = tube.getPosTopTube().x;
+            snapshots.tubeY[base + i] = tube.getPosTopTube().y;
+            snapshots.tubeScored[base + i] = tube.isScored();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.stuartkol.game.states;
+
+/**
+ * A fixed-size ring buffer of game-play snapshots, one per tick. Every field is
+ * stored in its own preallocated primitive array so recording a tick never
+ * allocates, and going back any number of ticks is a single index calculation.
+ *
+ * PlayWorld writes and reads the arrays directly using the slot returned by
+ * {@link #next()} or {@link #rewind(int)}. Tube fields hold tubeCount entries
+ * per slot, starting at slot * tubeCount.
+ */
+public class SnapshotBuffer {
+    final int capacity;
+    final int tubeCount;
+
+    final float[] birdX, birdY, birdVelY;
+    final int[] birdFrame;
+    final float[] birdFrameTime;
+    final int[] score;
+    final int[] nextGap;
+    final float[] tubeX, tubeY;
+    final boolean[] tubeScored;
+
+    private int head;
+    private int size;
+
+    /**
+     * Constructor for the SnapshotBuffer
+     * @param capacity The number of ticks that can be kept
+     * @param tubeCount The number of tubes in each snapshot
+     */
+    public SnapshotBuffer(int capacity, int tubeCount) {
+        this.capacity = capacity;
+        this.tubeCount = tubeCount;
+        birdX = new float[capacity];
+        birdY = new float[capacity];
+        birdVelY = new float[capacity];
+        birdFrame = new int[capacity];
+        birdFrameTime = new float[capacity];
+        score = new int[capacity];
+        nextGap = new int[capacity];
+        tubeX = new float[capacity * tubeCount];
+        tubeY = new float[capacity * tubeCount];
+        tubeScored = new boolean[capacity * tubeCount];
+    }
+
+    /**
+     * Claims the slot for a new snapshot, overwriting the oldest one if the buffer is full
+     * @return The slot to write the snapshot to
+     */
+    public int next() {
+        int slot = head;
+        head = (head + 1) % capacity;
+        if (size < capacity) {
+            size++;
+        }
+        return slot;
+    }
+
+    /**
+     * Goes back a number of ticks from the latest snapshot. Snapshots newer than the
+     * returned one are dropped, so it becomes the latest and recording continues from it.
+     * @param ticks The number of ticks to go back, limited to the oldest snapshot kept
+     * @return The slot of the snapshot to restore, or -1 if there are no snapshots
+     */
+    public int rewind(int ticks) {
+        if (size == 0) {
+            return -1;
+        }
+        ticks = Math.max(0, Math.min(ticks, size - 1));
+        size -= ticks;
+        head = (head - ticks + capacity) % capacity;
+        return (head - 1 + capacity) % capacity;
+    }
+
+    /**
+     * Gets the number of snapshots currently kept
+     * @return The number of snapshots
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -3,6 +3,7 @@ package com.stuartkol.game.states;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.math.Vector3;
+import com.stuartkol.game.ResourceTracker;
 
 /**
  * A cookie cutter class that makes my life a little easier
@@ -14,10 +15,22 @@ public abstract class State {
 
     protected State(GameStateManager gsm) {
         this.gsm = gsm;
+        // Resources loaded while this state is being built belong to it
+        ResourceTracker.setOwner(this);
         cam = new OrthographicCamera();
         mouse = new Vector3();
     }
 
+    /**
+     * Whether this state animates on its own and has to be redrawn every frame.
+     * States that only change on input should return false so they are redrawn
+     * on demand instead.
+     * @return True if the state needs continuous rendering
+     */
+    public boolean isContinuous() {
+        return true;
+    }
+
     protected abstract void handleInput();
     public abstract void update(float dt);
     public abstract void render(SpriteBatch sb);
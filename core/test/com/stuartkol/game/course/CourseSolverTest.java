@@ -0,0 +1,69 @@
+package com.stuartkol.game.course;
+
+import com.stuartkol.game.sprites.Bird;
+import com.stuartkol.game.sprites.CollisionMask;
+import com.stuartkol.game.states.PlayState;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that the solver moves the bird exactly the way Bird.update does, so the
+ * states it follows are ones the bird can really be in
+ */
+public class CourseSolverTest {
+    // The float math in Bird.update is allowed to drift this far, in pixels
+    private static final float TOLERANCE = 0.01f;
+    private static final float GROUND_TOP = 62;
+
+    @Test
+    public void fallFromStartMatchesBird() {
+        follow(PlayState.BIRD_START_Y, -1);
+    }
+
+    @Test
+    public void singleJumpMatchesBird() {
+        for (int jumpTick = 0; jumpTick < 30; jumpTick += 3) {
+            follow(PlayState.BIRD_START_Y, jumpTick);
+        }
+    }
+
+    @Test
+    public void jumpIntoCeilingMatchesBird() {
+        follow(Bird.CEILING - 10, 0);
+    }
+
+    /**
+     * Moves a real bird and the solver's state side by side until the bird hits the ground
+     * @param startY The height both start at, at rest
+     * @param jumpTick The tick both jump on, or -1 to only fall
+     */
+    private static void follow(int startY, int jumpTick) {
+        Bird bird = new Bird(PlayState.BIRD_START_X, startY, solidMasks());
+        int y = CourseSolver.toUnits(startY);
+        int v = CourseSolver.START;
+        for (int tick = 0; bird.getPos().y > GROUND_TOP; tick++) {
+            if (tick == jumpTick) {
+                bird.jump();
+                v = CourseSolver.JUMP;
+            } else {
+                v = CourseSolver.fall(v);
+            }
+            bird.update(PlayState.TICK);
+            y = CourseSolver.advance(y, v);
+            assertEquals("Height on tick " + tick + " with a jump on tick " + jumpTick,
+                    bird.getPos().y, (float) y / CourseSolver.UNITS, TOLERANCE);
+        }
+    }
+
+    private static CollisionMask[] solidMasks() {
+        int width = 34 * Bird.FRAME_COUNT;
+        int height = 24;
+        int[] alpha = new int[width * height];
+        Arrays.fill(alpha, 255);
+        return CollisionMask.fromAlpha(alpha, width, height, Bird.FRAME_COUNT);
+    }
+}
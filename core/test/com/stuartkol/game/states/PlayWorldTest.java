@@ -0,0 +1,64 @@
+package com.stuartkol.game.states;
+
+import com.badlogic.gdx.utils.Array;
+import com.stuartkol.game.course.CourseSolver;
+import com.stuartkol.game.course.SolvedCourse;
+import com.stuartkol.game.sprites.Bird;
+import com.stuartkol.game.sprites.CollisionMask;
+import com.stuartkol.game.sprites.Tube;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that rewinding puts the whole world back, so replaying the same inputs
+ * after a rewind plays out exactly as it did the first time
+ */
+public class PlayWorldTest {
+    private static final int TICKS = 100;
+    private static final int REWIND_TICKS = 50;
+    private static final int JUMP_EVERY = 20;
+    private static final float GROUND_TOP = 62;
+
+    @Test
+    public void replayAfterRewindMatchesFirstPlay() {
+        Bird bird = new Bird(PlayState.BIRD_START_X, PlayState.BIRD_START_Y, solidMasks(34, 24, Bird.FRAME_COUNT));
+        PlayWorld world = newWorld(bird);
+        float[] heights = new float[TICKS + 1];
+        int[] frames = new int[TICKS + 1];
+        for (int tick = 1; tick <= TICKS; tick++) {
+            assertEquals("Crashed on tick " + tick, 0, world.tick(tick % JUMP_EVERY == 0) & PlayWorld.CRASHED);
+            heights[tick] = bird.getPos().y;
+            frames[tick] = bird.getAnimation().getFrameIndex();
+        }
+
+        world.rewind(REWIND_TICKS);
+        assertEquals("Height after the rewind", heights[TICKS - REWIND_TICKS], bird.getPos().y, 0);
+        for (int tick = TICKS - REWIND_TICKS + 1; tick <= TICKS; tick++) {
+            world.tick(tick % JUMP_EVERY == 0);
+            assertEquals("Height on tick " + tick, heights[tick], bird.getPos().y, 0);
+            assertEquals("Frame on tick " + tick, frames[tick], bird.getAnimation().getFrameIndex());
+        }
+    }
+
+    private static PlayWorld newWorld(Bird bird) {
+        CollisionMask tubeMask = solidMasks(52, 320, 1)[0];
+        Array<Tube> tubes = new Array<Tube>();
+        for (int i = 0; i < PlayState.TUBE_COUNT; i++) {
+            tubes.add(new Tube(CourseSolver.tubeX(i), Tube.LOWEST_OPENING + Tube.TUBE_GAP, tubeMask, tubeMask));
+        }
+        CourseSolver solver = new CourseSolver(bird.getBounds().width, bird.getBounds().height, GROUND_TOP);
+        PlayWorld world = new PlayWorld(bird, tubes, new SolvedCourse(1, solver), GROUND_TOP);
+        world.start();
+        return world;
+    }
+
+    private static CollisionMask[] solidMasks(int width, int height, int frameCount) {
+        int[] alpha = new int[width * frameCount * height];
+        Arrays.fill(alpha, 255);
+        return CollisionMask.fromAlpha(alpha, width * frameCount, height, frameCount);
+    }
+}
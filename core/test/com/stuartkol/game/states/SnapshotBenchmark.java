@@ -0,0 +1,78 @@
+package com.stuartkol.game.states;
+
+import com.badlogic.gdx.utils.Array;
+import com.stuartkol.game.course.CourseSolver;
+import com.stuartkol.game.course.SolvedCourse;
+import com.stuartkol.game.sprites.Bird;
+import com.stuartkol.game.sprites.CollisionMask;
+import com.stuartkol.game.sprites.Tube;
+
+import java.util.Arrays;
+
+/**
+ * Measures how long PlayWorld takes to record a snapshot, which it does on every
+ * tick. Kept out of the game so the snapshot path itself carries no timing code.
+ * Uses a headless bird and tubes with solid masks of the sprites' sizes, so it
+ * needs no assets. Run its main method; it isn't part of the unit tests.
+ */
+public class SnapshotBenchmark {
+    private static final int BIRD_WIDTH = 34;
+    private static final int BIRD_HEIGHT = 24;
+    private static final int TUBE_WIDTH = 52;
+    private static final int TUBE_HEIGHT = 320;
+    private static final float GROUND_TOP = 62;
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+    private static final int SNAPSHOTS_PER_ROUND = 1000000;
+
+    /**
+     * Runs the benchmark and prints the average time per snapshot of each round
+     * @param args Unused
+     */
+    public static void main(String[] args) {
+        PlayWorld world = newWorld();
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            round(world);
+        }
+        long[] results = new long[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            results[i] = round(world);
+            System.out.println("Round " + (i + 1) + ": " + results[i] + "ns per snapshot");
+        }
+        Arrays.sort(results);
+        System.out.println("Median: " + results[ROUNDS / 2] + "ns per snapshot");
+    }
+
+    /**
+     * Records a round of snapshots
+     * @return The average time per snapshot in nanoseconds
+     */
+    private static long round(PlayWorld world) {
+        long start = System.nanoTime();
+        for (int i = 0; i < SNAPSHOTS_PER_ROUND; i++) {
+            world.saveSnapshot();
+        }
+        return (System.nanoTime() - start) / SNAPSHOTS_PER_ROUND;
+    }
+
+    private static PlayWorld newWorld() {
+        Bird bird = new Bird(PlayState.BIRD_START_X, PlayState.BIRD_START_Y,
+                solidMasks(BIRD_WIDTH * Bird.FRAME_COUNT, BIRD_HEIGHT, Bird.FRAME_COUNT));
+        CollisionMask tubeMask = solidMasks(TUBE_WIDTH, TUBE_HEIGHT, 1)[0];
+        Array<Tube> tubes = new Array<Tube>();
+        for (int i = 0; i < PlayState.TUBE_COUNT; i++) {
+            tubes.add(new Tube(CourseSolver.tubeX(i), Tube.LOWEST_OPENING + Tube.TUBE_GAP, tubeMask, tubeMask));
+        }
+        CourseSolver solver = new CourseSolver(BIRD_WIDTH, BIRD_HEIGHT, GROUND_TOP);
+        PlayWorld world = new PlayWorld(bird, tubes, new SolvedCourse(1, solver), GROUND_TOP);
+        world.start();
+        return world;
+    }
+
+    private static CollisionMask[] solidMasks(int width, int height, int frameCount) {
+        int[] alpha = new int[width * height];
+        Arrays.fill(alpha, 255);
+        return CollisionMask.fromAlpha(alpha, width, height, frameCount);
+    }
+}
@@ -0,0 +1,104 @@
+package com.stuartkol.game.states;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.stuartkol.game.ResourceTracker;
+import com.stuartkol.game.ResourceTracker.Category;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Cycles through every state many times, like a long session of play, with the
+ * ResourceTracker failing on leaks the way it does in debug builds. Runs on the
+ * headless backend with a mocked GL, so images are decoded but never uploaded.
+ */
+public class StateCycleTest {
+    private static final int ROUNDS = 1000;
+
+    private static HeadlessApplication application;
+
+    @BeforeClass
+    public static void startGdx() {
+        application = new HeadlessApplication(new ApplicationAdapter() {});
+        Gdx.gl = Mockito.mock(GL20.class);
+        Gdx.gl20 = Gdx.gl;
+    }
+
+    @AfterClass
+    public static void stopGdx() {
+        ResourceTracker.setFailOnLeak(false);
+        application.exit();
+    }
+
+    @Before
+    public void failOnLeaks() {
+        ResourceTracker.setFailOnLeak(true);
+    }
+
+    /**
+     * Every round goes menu, game, game over and back to the menu. Any leak throws,
+     * and the live resources have to be exactly what one menu holds after every round.
+     */
+    @Test
+    public void liveResourcesStayFlatOverManyRounds() {
+        GameStateManager gsm = new GameStateManager();
+        gsm.push(new MenuState(gsm));
+        int[] counts = new int[Category.values().length];
+        long[] bytes = new long[Category.values().length];
+        for (Category category : Category.values()) {
+            counts[category.ordinal()] = ResourceTracker.getLiveCount(category);
+            bytes[category.ordinal()] = ResourceTracker.getLiveBytes(category);
+        }
+
+        for (int round = 0; round < ROUNDS; round++) {
+            gsm.set(new PlayState(gsm));
+            gsm.set(new GameOverState(gsm));
+            gsm.set(new MenuState(gsm));
+            for (Category category : Category.values()) {
+                assertEquals(category + " count after round " + round,
+                        counts[category.ordinal()], ResourceTracker.getLiveCount(category));
+                assertEquals(category + " bytes after round " + round,
+                        bytes[category.ordinal()], ResourceTracker.getLiveBytes(category));
+            }
+        }
+
+        gsm.dispose();
+        for (Category category : Category.values()) {
+            assertEquals(category + " count after the last state", 0, ResourceTracker.getLiveCount(category));
+        }
+    }
+
+    /**
+     * A resource that a state loads but never disposes stops the game when failing on
+     * leaks, and is disposed by the tracker otherwise
+     */
+    @Test
+    public void leakedResourceIsReported() {
+        GameStateManager gsm = new GameStateManager();
+        MenuState menu = new MenuState(gsm);
+        gsm.push(menu);
+        ResourceTracker.newTexture("bg.png");
+
+        try {
+            gsm.pop();
+            fail("The leaked texture wasn't reported");
+        } catch (GdxRuntimeException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("bg.png"));
+        }
+
+        ResourceTracker.setFailOnLeak(false);
+        assertEquals(1, ResourceTracker.release(menu));
+        assertEquals(0, ResourceTracker.release(menu));
+    }
+}
@@ -3,6 +3,7 @@ package com.stuartkol.game.desktop;
 import com.badlogic.gdx.backends.lwjgl.LwjglApplication;
 import com.badlogic.gdx.backends.lwjgl.LwjglApplicationConfiguration;
 import com.stuartkol.game.FlappyDemo;
+import com.stuartkol.game.FramePacer;
 
 public class DesktopLauncher {
 	public static void main (String[] arg) {
@@ -10,6 +11,12 @@ public class DesktopLauncher {
 		config.width = FlappyDemo.WIDTH;
 		config.height = FlappyDemo.HEIGHT;
 		config.title = FlappyDemo.TITLE;
-		new LwjglApplication(new FlappyDemo(), config);
+		// The game's FramePacer caps the frame rate itself
+		config.foregroundFPS = 0;
+		// desktop:run and desktop:debug set flappy.debug, the distributed jar doesn't
+		boolean debug = Boolean.getBoolean("flappy.debug");
+		// The frame rate cap can be changed with -Dflappy.fps=<fps>, 0 turns it off
+		int targetFps = Integer.getInteger("flappy.fps", FramePacer.DEFAULT_TARGET_FPS);
+		new LwjglApplication(new FlappyDemo(debug, targetFps), config);
 	}
 }
@@ -0,0 +1,88 @@
+package com.stuartkol.game.server;
+
+import com.stuartkol.game.sprites.Bird;
+import com.stuartkol.game.sprites.CollisionMask;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * The parts of the game's assets that affect the rules: collision masks and the height
+ * of the ground. They are read with ImageIO so the server needs no graphics context,
+ * and the masks are built by CollisionMask like the game builds them.
+ */
+public class HeadlessAssets {
+    private final CollisionMask[] birdMasks;
+    private final CollisionMask topTubeMask;
+    private final CollisionMask bottomTubeMask;
+    private final int groundHeight;
+
+    /**
+     * Constructor for the HeadlessAssets
+     * @param dir The game's assets directory
+     * @throws IOException If an image can't be read
+     */
+    public HeadlessAssets(File dir) throws IOException {
+        birdMasks = masks(read(dir, "birdanimation.png"), Bird.FRAME_COUNT);
+        topTubeMask = masks(read(dir, "toptube.png"), 1)[0];
+        bottomTubeMask = masks(read(dir, "bottomtube.png"), 1)[0];
+        groundHeight = read(dir, "ground.png").getHeight();
+    }
+
+    /**
+     * Gets the collision masks of the bird's animation frames
+     * @return One mask per frame
+     */
+    public CollisionMask[] getBirdMasks() {
+        return birdMasks;
+    }
+
+    /**
+     * Gets the collision mask of the top tube
+     * @return The top tube's mask
+     */
+    public CollisionMask getTopTubeMask() {
+        return topTubeMask;
+    }
+
+    /**
+     * Gets the collision mask of the bottom tube
+     * @return The bottom tube's mask
+     */
+    public CollisionMask getBottomTubeMask() {
+        return bottomTubeMask;
+    }
+
+    /**
+     * Gets the height of the ground image
+     * @return The height in pixels
+     */
+    public int getGroundHeight() {
+        return groundHeight;
+    }
+
+    private static BufferedImage read(File dir, String name) throws IOException {
+        File file = new File(dir, name);
+        BufferedImage image = ImageIO.read(file);
+        if (image == null) {
+            throw new IOException("Not an image: " + file);
+        }
+        return image;
+    }
+
+    /**
+     * Splits an image into equally wide frames and builds a mask for each
+     */
+    private static CollisionMask[] masks(BufferedImage image, int frameCount) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] alpha = image.getRGB(0, 0, width, height, null, 0, width);
+        for (int i = 0; i < alpha.length; i++) {
+            // getRGB returns ARGB, so alpha is the highest byte
+            alpha[i] >>>= 24;
+        }
+        return CollisionMask.fromAlpha(alpha, width, height, frameCount);
+    }
+}
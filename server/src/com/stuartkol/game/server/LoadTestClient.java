@@ -0,0 +1,179 @@
+package com.stuartkol.game.server;
+
+import com.stuartkol.game.sprites.Bird;
+import com.stuartkol.game.sprites.Tube;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures how fast a local VerificationServer verifies runs. A set of runs is first
+ * played by a simple autopilot, a tenth of them with a tampered score, and then
+ * submitted over and over from many virtual threads at once. Repeated runs are
+ * answered from the server's cache, so the mix of fresh and repeated runs can be
+ * tuned with the number of distinct runs.
+ *
+ * Prints fresh replays per second, taken from the server's own counters, and latency
+ * percentiles of the completed requests, with cache hits and replays kept apart.
+ */
+public class LoadTestClient {
+    // Runs are cut off after this many ticks by letting the bird fall
+    private static final int MAX_RUN_TICKS = 60 * 60;
+
+    /**
+     * Runs the load test
+     * @param args The assets directory, the server URL, the number of distinct runs,
+     *             the number of requests, and the number of requests in flight at once
+     * @throws Exception If the assets can't be read or the test is interrupted
+     */
+    public static void main(String[] args) throws Exception {
+        File assetsDir = new File(args.length > 0 ? args[0] : ".");
+        String url = args.length > 1 ? args[1] : "http://localhost:" + VerificationServer.DEFAULT_PORT;
+        int distinct = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+        int requests = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+        int concurrency = args.length > 4 ? Integer.parseInt(args[4]) : 64;
+
+        HeadlessAssets assets = new HeadlessAssets(assetsDir);
+        Random random = new Random();
+        List<String> runs = new ArrayList<String>();
+        long start = System.nanoTime();
+        for (int i = 0; i < distinct; i++) {
+            RunLog log = play(assets, random.nextLong(), random);
+            if (i % 10 == 9) {
+                log = new RunLog(log.seed(), log.score() + 1, log.jumps());
+            }
+            runs.add(log.format());
+        }
+        System.out.println("Played " + distinct + " runs in " + (System.nanoTime() - start) / 1000000 + "ms");
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        URI verify = URI.create(url + "/verify");
+        URI stats = URI.create(url + "/stats");
+        // Only completed requests are timed, so each kind keeps a count of how many it holds
+        long[] hitLatencies = new long[requests];
+        long[] missLatencies = new long[requests];
+        AtomicInteger hits = new AtomicInteger();
+        AtomicInteger misses = new AtomicInteger();
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        Semaphore inFlight = new Semaphore(concurrency);
+
+        long replaysBefore = replayCount(client, stats);
+        start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < requests; i++) {
+                int request = i;
+                inFlight.acquire();
+                executor.submit(() -> {
+                    try {
+                        HttpRequest post = HttpRequest.newBuilder(verify)
+                                .POST(HttpRequest.BodyPublishers.ofString(runs.get(request % runs.size())))
+                                .build();
+                        long sent = System.nanoTime();
+                        HttpResponse<String> response = client.send(post, HttpResponse.BodyHandlers.ofString());
+                        long latency = System.nanoTime() - sent;
+                        if (response.statusCode() != 200) {
+                            failed.incrementAndGet();
+                            return;
+                        }
+                        if ("HIT".equals(response.headers().firstValue("X-Cache").orElse(null))) {
+                            hitLatencies[hits.getAndIncrement()] = latency;
+                        } else {
+                            missLatencies[misses.getAndIncrement()] = latency;
+                        }
+                        if (response.body().startsWith("ACCEPTED")) {
+                            accepted.incrementAndGet();
+                        } else {
+                            rejected.incrementAndGet();
+                        }
+                    } catch (IOException | InterruptedException e) {
+                        failed.incrementAndGet();
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long replays = replayCount(client, stats) - replaysBefore;
+
+        System.out.printf("%d requests, %d accepted, %d rejected, %d failed%n",
+                requests, accepted.get(), rejected.get(), failed.get());
+        System.out.printf("%d cache hits, %d answered by a replay, %d fresh replays%n",
+                hits.get(), misses.get(), replays);
+        System.out.printf("%.1f fresh replays/sec, %.1f requests/sec over %.2fs%n",
+                replays / seconds, (hits.get() + misses.get()) / seconds, seconds);
+        printLatencies("cache hit", hitLatencies, hits.get());
+        printLatencies("replay", missLatencies, misses.get());
+    }
+
+    /**
+     * Plays a run with an autopilot that jumps whenever the bird drops below the
+     * middle of the next gap, with a little noise so runs end at different scores
+     * @return The log of the run with its genuine score
+     */
+    private static RunLog play(HeadlessAssets assets, long seed, Random random) {
+        RunSimulation sim = new RunSimulation(assets, seed);
+        int[] jumps = new int[64];
+        int count = 0;
+        int tick = 0;
+        while (true) {
+            Bird bird = sim.getBird();
+            float target = sim.getNextGapTop() - Tube.TUBE_GAP / 2 - bird.getBounds().height / 2
+                    + random.nextInt(21) - 10;
+            boolean jump = tick < MAX_RUN_TICKS && bird.getVel().y <= 0 && bird.getPos().y < target;
+            if (jump) {
+                if (count == jumps.length) {
+                    jumps = Arrays.copyOf(jumps, count * 2);
+                }
+                jumps[count++] = tick;
+            }
+            tick++;
+            if (!sim.tick(jump)) {
+                break;
+            }
+        }
+        return new RunLog(seed, sim.getScore(), Arrays.copyOf(jumps, count));
+    }
+
+    /**
+     * Asks the server how many runs it has replayed so far
+     * @return The server's count of verified runs
+     */
+    private static long replayCount(HttpClient client, URI stats) throws IOException, InterruptedException {
+        String body = client.send(HttpRequest.newBuilder(stats).build(), HttpResponse.BodyHandlers.ofString()).body();
+        String[] fields = body.trim().split(" ");
+        return Long.parseLong(fields[Arrays.asList(fields).indexOf("verified") + 1]);
+    }
+
+    private static void printLatencies(String kind, long[] latencies, int count) {
+        if (count == 0) {
+            System.out.println(kind + " latency: no requests");
+            return;
+        }
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        System.out.printf("%s latency p50 %.2fms p90 %.2fms p99 %.2fms max %.2fms%n", kind,
+                percentile(sorted, 0.50), percentile(sorted, 0.90),
+                percentile(sorted, 0.99), percentile(sorted, 1.0));
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+}
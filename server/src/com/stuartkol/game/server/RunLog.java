@@ -0,0 +1,74 @@
+package com.stuartkol.game.server;
+
+import java.util.Arrays;
+
+/**
+ * A submitted run: the course seed, the score the player claims, and the ticks on
+ * which they jumped. Ticks count every game-play tick from the start of the run,
+ * including the ones played after a continue, starting from 0.
+ *
+ * The text form is whitespace separated: the seed, the claimed score, then the jump
+ * ticks in increasing order.
+ *
+ * @param seed The seed the course was generated from
+ * @param score The claimed score
+ * @param jumps The ticks on which the player jumped, in increasing order
+ */
+public record RunLog(long seed, int score, int[] jumps) {
+    // A run can't be longer than an hour of play
+    public static final int MAX_TICKS = 60 * 60 * 60;
+
+    /**
+     * Parses a run log from its text form
+     * @param text The submitted text
+     * @return The run log
+     * @throws IllegalArgumentException If the text isn't a valid run log
+     */
+    public static RunLog parse(String text) {
+        String[] tokens = text.trim().split("\\s+");
+        if (tokens.length < 2) {
+            throw new IllegalArgumentException("Expected a seed and a score");
+        }
+        try {
+            long seed = Long.parseLong(tokens[0]);
+            int score = Integer.parseInt(tokens[1]);
+            int[] jumps = new int[tokens.length - 2];
+            for (int i = 0; i < jumps.length; i++) {
+                jumps[i] = Integer.parseInt(tokens[i + 2]);
+                if (jumps[i] < 0 || jumps[i] >= MAX_TICKS || (i > 0 && jumps[i] <= jumps[i - 1])) {
+                    throw new IllegalArgumentException("Jump ticks must be increasing and within "
+                            + MAX_TICKS);
+                }
+            }
+            if (score < 0) {
+                throw new IllegalArgumentException("Negative score");
+            }
+            return new RunLog(seed, score, jumps);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the text form of the run log, which is also used as its cache key
+     * @return The text form
+     */
+    public String format() {
+        StringBuilder sb = new StringBuilder().append(seed).append(' ').append(score);
+        for (int jump : jumps) {
+            sb.append(' ').append(jump);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof RunLog other && seed == other.seed && score == other.score
+                && Arrays.equals(jumps, other.jumps);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Long.hashCode(seed) + score) + Arrays.hashCode(jumps);
+    }
+}
@@ -0,0 +1,110 @@
+package com.stuartkol.game.server;
+
+import com.badlogic.gdx.utils.Array;
+import com.stuartkol.game.course.CourseSolver;
+import com.stuartkol.game.course.SolvedCourse;
+import com.stuartkol.game.sprites.Bird;
+import com.stuartkol.game.sprites.Tube;
+import com.stuartkol.game.states.PlayState;
+import com.stuartkol.game.states.PlayWorld;
+
+/**
+ * Plays a run of the game without rendering, one fixed tick at a time. The rules are
+ * the game's own PlayWorld, with a bird and tubes built from the game's collision masks
+ * instead of textures, so a run replays to the same score it was played to.
+ *
+ * The course is solved from the seed on the calling thread. A crash uses up a continue
+ * right away: the game pauses to show the debris first, but no ticks pass meanwhile.
+ */
+public class RunSimulation {
+    private final Bird bird;
+    private final Array<Tube> tubes;
+    private final PlayWorld world;
+    private int ticks;
+    private boolean over;
+
+    /**
+     * Constructor for a RunSimulation, positioned at the first tick of the run
+     * @param assets The collision masks and sizes of the game's sprites
+     * @param seed The seed the course is generated from
+     */
+    public RunSimulation(HeadlessAssets assets, long seed) {
+        bird = new Bird(PlayState.BIRD_START_X, PlayState.BIRD_START_Y, assets.getBirdMasks());
+        tubes = new Array<Tube>();
+        for (int i = 0; i < PlayState.TUBE_COUNT; i++) {
+            tubes.add(new Tube(CourseSolver.tubeX(i), Tube.LOWEST_OPENING + Tube.TUBE_GAP,
+                    assets.getTopTubeMask(), assets.getBottomTubeMask()));
+        }
+
+        float groundTop = assets.getGroundHeight() + PlayState.GROUND_Y_OFFSET;
+        CourseSolver solver = new CourseSolver(bird.getBounds().width, bird.getBounds().height, groundTop);
+        world = new PlayWorld(bird, tubes, new SolvedCourse(seed, solver), groundTop);
+        world.start();
+    }
+
+    /**
+     * Runs one tick of the game
+     * @param jump Whether the player jumped on this tick
+     * @return False once the game is over
+     */
+    public boolean tick(boolean jump) {
+        if (over) {
+            return false;
+        }
+        ticks++;
+        if ((world.tick(jump) & PlayWorld.CRASHED) != 0 && !world.useContinue()) {
+            over = true;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the last crash ended the game
+     * @return True if the game is over
+     */
+    public boolean isOver() {
+        return over;
+    }
+
+    /**
+     * Gets the score of the run so far
+     * @return The number of tubes passed
+     */
+    public int getScore() {
+        return world.getScore();
+    }
+
+    /**
+     * Gets the number of ticks played, including the ones that were undone by a continue
+     * @return The number of ticks
+     */
+    public int getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Gets the simulated bird
+     * @return The bird
+     */
+    public Bird getBird() {
+        return bird;
+    }
+
+    /**
+     * Gets the top of the gap of the first tube the bird hasn't passed yet
+     * @return The y coordinate of that gap's top tube
+     */
+    public float getNextGapTop() {
+        float best = Float.MAX_VALUE;
+        float gapTop = 0;
+        for (int i = 0; i < tubes.size; i++) {
+            float right = tubes.get(i).getPosTopTube().x + Tube.TUBE_WIDTH;
+            if (right > bird.getPos().x && right < best) {
+                best = right;
+                gapTop = tubes.get(i).getPosTopTube().y;
+            }
+        }
+        return gapTop;
+    }
+}
@@ -0,0 +1,191 @@
+package com.stuartkol.game.server;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Replays submitted runs and decides whether their claimed score is genuine.
+ * Replays are CPU bound, so only a fixed number run at once no matter how many
+ * requests are waiting. Runs that were already verified are answered from a
+ * cache without replaying them again, and a run submitted again while it is
+ * still being replayed waits for that replay instead of starting another.
+ */
+public class RunVerifier {
+    /**
+     * The outcome of verifying a run
+     * @param accepted Whether the claimed score matched the replay
+     * @param score The score the replay reached
+     * @param reason Why the run was rejected, or null if it was accepted
+     * @param fromCache Whether the outcome was answered from the cache instead of a replay
+     */
+    public record Result(boolean accepted, int score, String reason, boolean fromCache) {
+        static Result accept(int score) {
+            return new Result(true, score, null, false);
+        }
+
+        static Result reject(int score, String reason) {
+            return new Result(false, score, reason, false);
+        }
+
+        Result asCached() {
+            return new Result(accepted, score, reason, true);
+        }
+    }
+
+    private final HeadlessAssets assets;
+    private final Semaphore replays;
+    private final int cacheSize;
+    // Guarded by cacheLock; a lock rather than synchronized so waiting virtual threads don't pin
+    private final Map<RunLog, Result> cache;
+    private final ReentrantLock cacheLock = new ReentrantLock();
+    private final ConcurrentHashMap<RunLog, CompletableFuture<Result>> inFlight =
+            new ConcurrentHashMap<RunLog, CompletableFuture<Result>>();
+
+    private final AtomicLong verified = new AtomicLong();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong joined = new AtomicLong();
+    private final AtomicLong busy = new AtomicLong();
+
+    /**
+     * Constructor for the RunVerifier
+     * @param assets The sizes and masks of the game's sprites
+     * @param maxReplays The most replays that may run at once
+     * @param cacheSize The number of verified runs to remember
+     */
+    public RunVerifier(HeadlessAssets assets, int maxReplays, int cacheSize) {
+        this.assets = assets;
+        this.cacheSize = cacheSize;
+        replays = new Semaphore(maxReplays);
+        cache = new LinkedHashMap<RunLog, Result>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RunLog, Result> eldest) {
+                return size() > RunVerifier.this.cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Verifies a run, from the cache if it was seen before
+     * @param log The submitted run
+     * @param timeout How long to wait for a free replay slot, in milliseconds
+     * @return The result, or null if no replay slot freed up in time
+     * @throws InterruptedException If interrupted while waiting for a slot
+     * @throws IllegalStateException If the replay failed
+     */
+    public Result verify(RunLog log, long timeout) throws InterruptedException {
+        Result result = cached(log);
+        if (result != null) {
+            cacheHits.incrementAndGet();
+            return result.asCached();
+        }
+
+        CompletableFuture<Result> pending = new CompletableFuture<Result>();
+        CompletableFuture<Result> running = inFlight.putIfAbsent(log, pending);
+        if (running != null) {
+            joined.incrementAndGet();
+            try {
+                return running.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Replay failed", e.getCause());
+            }
+        }
+
+        try {
+            // Another request may have finished replaying this run since the cache was checked
+            result = cached(log);
+            if (result != null) {
+                cacheHits.incrementAndGet();
+                return result.asCached();
+            }
+
+            if (!replays.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+                busy.incrementAndGet();
+                return null;
+            }
+            try {
+                result = replay(assets, log);
+            } finally {
+                replays.release();
+            }
+
+            cacheLock.lock();
+            try {
+                cache.put(log, result);
+            } finally {
+                cacheLock.unlock();
+            }
+            verified.incrementAndGet();
+            if (result.accepted()) {
+                accepted.incrementAndGet();
+            }
+            return result;
+        } catch (Throwable t) {
+            // Requests that joined this run fail with it rather than being told the server is busy
+            pending.completeExceptionally(t);
+            throw t;
+        } finally {
+            // Otherwise they get the same answer, or null if no replay slot freed up
+            inFlight.remove(log);
+            pending.complete(result);
+        }
+    }
+
+    /**
+     * Replays a run from its seed and jump ticks and compares the score
+     * @param assets The sizes and masks of the game's sprites
+     * @param log The submitted run
+     * @return The result
+     */
+    public static Result replay(HeadlessAssets assets, RunLog log) {
+        RunSimulation sim = new RunSimulation(assets, log.seed());
+        int[] jumps = log.jumps();
+        int next = 0;
+        for (int tick = 0; tick < RunLog.MAX_TICKS; tick++) {
+            boolean jump = next < jumps.length && jumps[next] == tick;
+            if (jump) {
+                next++;
+            }
+            if (!sim.tick(jump)) {
+                break;
+            }
+        }
+
+        if (!sim.isOver()) {
+            return Result.reject(sim.getScore(), "Run did not end within " + RunLog.MAX_TICKS + " ticks");
+        }
+        if (next < jumps.length) {
+            return Result.reject(sim.getScore(), "Jumps after the run ended at tick " + sim.getTicks());
+        }
+        if (sim.getScore() != log.score()) {
+            return Result.reject(sim.getScore(), "Claimed " + log.score() + " but the replay scored "
+                    + sim.getScore());
+        }
+        return Result.accept(sim.getScore());
+    }
+
+    /**
+     * Gets a summary of the verifier's counters
+     * @return One line of counters
+     */
+    public String stats() {
+        return "verified " + verified.get() + " accepted " + accepted.get() + " cache hits "
+                + cacheHits.get() + " joined " + joined.get() + " busy " + busy.get() + " free slots " + replays.availablePermits();
+    }
+
+    private Result cached(RunLog log) {
+        cacheLock.lock();
+        try {
+            return cache.get(log);
+        } finally {
+            cacheLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.stuartkol.game.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A small local HTTP service that verifies leaderboard runs. Every request gets its
+ * own virtual thread, while the RunVerifier limits how many replays run at once.
+ *
+ * POST /verify with a run log in its text form (see RunLog) answers
+ * "ACCEPTED score" or "REJECTED score reason", with an X-Cache header of HIT when
+ * the run was answered from the cache and MISS when it was replayed. GET /stats
+ * answers the verifier's counters. The service only listens on the loopback address.
+ */
+public class VerificationServer {
+    public static final int DEFAULT_PORT = 8080;
+    // How long a request waits for a free replay slot before the server reports it's busy
+    private static final long SLOT_TIMEOUT = 2000;
+    private static final int MAX_BODY = 1 << 20;
+    private static final int CACHE_SIZE = 10000;
+
+    private final RunVerifier verifier;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Constructor for the VerificationServer
+     * @param verifier The verifier runs are handed to
+     * @param port The local port to listen on
+     * @throws IOException If the port can't be bound
+     */
+    public VerificationServer(RunVerifier verifier, int port) throws IOException {
+        this.verifier = verifier;
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.setExecutor(executor);
+        server.createContext("/verify", this::handleVerify);
+        server.createContext("/stats", this::handleStats);
+    }
+
+    /**
+     * Starts the server with the assets directory and port given on the command line
+     * @param args The assets directory (default: the working directory) and the port
+     * @throws IOException If the assets can't be read or the port can't be bound
+     */
+    public static void main(String[] args) throws IOException {
+        File assetsDir = new File(args.length > 0 ? args[0] : ".");
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+
+        int replays = Runtime.getRuntime().availableProcessors();
+        RunVerifier verifier = new RunVerifier(new HeadlessAssets(assetsDir), replays, CACHE_SIZE);
+        VerificationServer server = new VerificationServer(verifier, port);
+        server.start();
+        System.out.println("Verification server listening on localhost:" + port
+                + " with " + replays + " replay slots");
+    }
+
+    /**
+     * Starts accepting requests
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests and closes the server right away
+     */
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    private void handleVerify(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "Use POST");
+                return;
+            }
+            byte[] body = readBody(exchange.getRequestBody());
+            if (body == null) {
+                respond(exchange, 413, "Run log too large");
+                return;
+            }
+
+            RunLog log;
+            try {
+                log = RunLog.parse(new String(body, StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                respond(exchange, 400, e.getMessage());
+                return;
+            }
+
+            RunVerifier.Result result;
+            try {
+                result = verifier.verify(log, SLOT_TIMEOUT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                respond(exchange, 503, "Interrupted");
+                return;
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                respond(exchange, 500, "Replay failed");
+                return;
+            }
+            if (result == null) {
+                respond(exchange, 503, "Busy, try again");
+                return;
+            }
+            exchange.getResponseHeaders().set("X-Cache", result.fromCache() ? "HIT" : "MISS");
+            if (result.accepted()) {
+                respond(exchange, 200, "ACCEPTED " + result.score());
+            } else {
+                respond(exchange, 200, "REJECTED " + result.score() + " " + result.reason());
+            }
+        }
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            respond(exchange, 200, verifier.stats());
+        }
+    }
+
+    /**
+     * Reads a request body up to MAX_BODY bytes
+     * @return The body, or null if it was too large
+     */
+    private static byte[] readBody(InputStream in) throws IOException {
+        byte[] body = in.readNBytes(MAX_BODY + 1);
+        return body.length > MAX_BODY ? null : body;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String text) throws IOException {
+        byte[] bytes = (text + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}